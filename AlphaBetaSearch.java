@@ -0,0 +1,314 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Negamax-Suche mit Alpha-Beta-Schnitt und iterativer Vertiefung für zwei Spieler.
+ *
+ * Die Suche arbeitet mit make/unmake auf einer eigenen Kopie des Boards und gepackten Zügen
+ * (ein Puffer pro Ply, keine Allokation im Suchbaum). Blätter werden mit
+ * {@link ReflexAgent#evaluateBoard} aus Sicht des Spielers am Zug bewertet. Jede Instanz gehört
+ * genau einem Thread. Optional werden Ergebnisse in einer {@link TranspositionTable} abgelegt;
+ * die Zugreihenfolge (Hash-Zug, Blockaden, Killer, History) bestimmt {@link MoveOrdering}.
+ * Stellungen, die die {@link EndgameTable} abdeckt, werden dort exakt nachgeschlagen. Für
+ * Lazy SMP (siehe {@link LazySmpSearch}) laufen mehrere Instanzen auf derselben Tabelle; Helfer
+ * variieren dabei Starttiefe und Reihenfolge der Wurzelzüge.
+ *
+ * Mit {@link #setReporter} meldet die Suche jede abgeschlossene Iteration samt Hauptvariante
+ * (Dreieckstabelle pro Ply); ohne Reporter wird keine Hauptvariante mitgeführt.
+ *
+ * Bewertungen: Gewinn in n Plies = WIN_SCORE - n, Verlust entsprechend negativ. Ein Spieler
+ * ohne legalen Zug hat verloren (wie in SantoriniGame.checkBlockade).
+ */
+final class AlphaBetaSearch {
+    static final int WIN_SCORE = 1_000_000;
+    static final int MAX_PLY = 64;
+    // Bewertungen ab hier gelten als entschiedene Stellung
+    static final int WIN_THRESHOLD = WIN_SCORE - MAX_PLY;
+    private static final int INFINITY = WIN_SCORE + 1;
+    // Uhr nur alle 1024 Knoten abfragen
+    private static final int TIME_CHECK_MASK = 1023;
+
+    private final ReflexAgent evaluator;
+    private final TranspositionTable table; // null = ohne Transpositionstabelle
+    private final MoveOrdering ordering;
+    private final EndgameTable endgame = EndgameTable.getDefault(); // null = keine Tabelle
+    private final int[] endgameScratch = new int[Board.NUM_SQUARES];
+    private final int[][] moveBuffers = new int[MAX_PLY + 1][Board.MAX_MOVES];
+    private final int[] rootMoves = new int[Board.MAX_MOVES];
+    private final Random random = new Random();
+    private Consumer<SearchReport.Iteration> reporter; // null = keine Berichte
+    private int[][] pvTable;   // pvTable[ply][ply..pvLength[ply]): Hauptvariante ab ply
+    private int[] pvLength;
+
+    private Board board;
+    private long deadline;
+    private AtomicBoolean stop;
+    private long nodes;
+    private boolean aborted;
+
+    AlphaBetaSearch(ReflexAgent evaluator, TranspositionTable table, MoveOrdering ordering) {
+        this.evaluator = evaluator;
+        this.table = table;
+        this.ordering = ordering;
+    }
+
+    AlphaBetaSearch(ReflexAgent evaluator, TranspositionTable table) {
+        this(evaluator, table, new MoveOrdering());
+    }
+
+    AlphaBetaSearch(ReflexAgent evaluator) {
+        this(evaluator, null);
+    }
+
+    /**
+     * Ergebnis der letzten vollständig durchsuchten Tiefe.
+     */
+    static final class Result {
+        final int move;      // gepackter Zug oder -1, wenn der Spieler blockiert ist
+        final int score;
+        final int depth;
+        final long nodes;
+        final long nanos;
+        final double firstMoveCutoffRate; // Anteil der Beta-Schnitte beim ersten Zug
+
+        Result(int move, int score, int depth, long nodes, long nanos, double firstMoveCutoffRate) {
+            this.move = move;
+            this.score = score;
+            this.depth = depth;
+            this.nodes = nodes;
+            this.nanos = nanos;
+            this.firstMoveCutoffRate = firstMoveCutoffRate;
+        }
+
+        Result(int move, int score, int depth, long nodes, long nanos) {
+            this(move, score, depth, nodes, nanos, 0.0);
+        }
+
+        double nodesPerSecond() {
+            return nodes / (Math.max(nanos, 1) / 1_000_000_000.0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Suchtiefe %d, %,d Knoten in %.2fs (%,.0f Knoten/s), Bewertung %s, Erstzug-Schnitte %.1f%%",
+                    depth, nodes, nanos / 1_000_000_000.0, nodesPerSecond(), scoreToString(score), firstMoveCutoffRate * 100);
+        }
+    }
+
+    /**
+     * Meldet abgeschlossene Iterationen an {@code reporter} (im Suchthread); null schaltet die
+     * Berichte und das Mitführen der Hauptvariante ab.
+     */
+    void setReporter(Consumer<SearchReport.Iteration> reporter) {
+        this.reporter = reporter;
+        if (reporter != null && pvTable == null) {
+            pvTable = new int[MAX_PLY + 1][MAX_PLY + 1];
+            pvLength = new int[MAX_PLY + 1];
+        }
+    }
+
+    static String scoreToString(int score) {
+        if (score >= WIN_THRESHOLD) return "Gewinn in " + (WIN_SCORE - score) + " Plies";
+        if (score <= -WIN_THRESHOLD) return "Verlust in " + (WIN_SCORE + score) + " Plies";
+        return Integer.toString(score);
+    }
+
+    /**
+     * Sucht iterativ vertiefend bis {@code maxDepth} oder bis zur Deadline (System.nanoTime)
+     * und liefert den besten Zug der letzten vollständig abgeschlossenen Tiefe.
+     * Das übergebene Board wird nicht verändert.
+     */
+    Result search(Board root, long deadlineNanos, int maxDepth) {
+        if (table != null) table.newSearch();
+        return search(root, deadlineNanos, maxDepth, 0, new AtomicBoolean());
+    }
+
+    /**
+     * Suche als Teil einer parallelen Suche. {@code helperId} 0 ist der Hauptthread; Helfer
+     * (ab 1) beginnen bei ungerader Id eine Tiefe später, mischen die Wurzelzüge hinter dem
+     * bisher besten Zug und laufen ohne Zeitheuristik, bis {@code stop} gesetzt wird oder die
+     * Deadline erreicht ist.
+     */
+    Result search(Board root, long deadlineNanos, int maxDepth, int helperId, AtomicBoolean stop) {
+        long start = System.nanoTime();
+        this.board = root.clone();
+        this.deadline = deadlineNanos;
+        this.stop = stop;
+        this.nodes = 0;
+        this.aborted = false;
+        boolean helper = helperId > 0;
+        if (helper) random.setSeed(helperId);
+        ordering.newSearch();
+
+        int count = board.generateMoves(board.getSideToMove(), rootMoves);
+        if (count == 0) {
+            return new Result(-1, -WIN_SCORE, 0, 0, System.nanoTime() - start);
+        }
+        for (int i = 0; i < count; i++) {
+            if (Move.isWin(rootMoves[i])) {
+                long elapsed = System.nanoTime() - start;
+                if (reporter != null) {
+                    reporter.accept(new SearchReport.Iteration(1, WIN_SCORE - 1, 1, elapsed, new int[] {rootMoves[i]}));
+                }
+                return new Result(rootMoves[i], WIN_SCORE - 1, 1, 1, elapsed);
+            }
+        }
+
+        Result best = new Result(rootMoves[0], 0, 0, 0, 0);
+        maxDepth = Math.min(maxDepth, MAX_PLY);
+        for (int depth = 1 + (helperId & 1); depth <= maxDepth; depth++) {
+            if (helper) shuffleTail(rootMoves, count);
+            int bestIndex = -1;
+            int alpha = -INFINITY;
+            for (int i = 0; i < count; i++) {
+                int token = board.makeMove(rootMoves[i]);
+                int score = -negamax(depth - 1, 1, -INFINITY, -alpha);
+                board.unmakeMove(token);
+                if (aborted) break;
+                if (score > alpha) {
+                    alpha = score;
+                    bestIndex = i;
+                    if (reporter != null) updatePv(0, rootMoves[i]);
+                }
+            }
+            if (aborted) break;
+
+            // besten Zug nach vorn, damit die nächste Iteration mit ihm beginnt
+            int bestMove = rootMoves[bestIndex];
+            System.arraycopy(rootMoves, 0, rootMoves, 1, bestIndex);
+            rootMoves[0] = bestMove;
+            if (table != null) {
+                table.store(board.getHash(), depth, TranspositionTable.BOUND_EXACT, alpha, Move.idOf(bestMove));
+            }
+
+            long elapsed = System.nanoTime() - start;
+            best = new Result(bestMove, alpha, depth, nodes, elapsed);
+            if (reporter != null) {
+                int[] pv = Arrays.copyOf(pvTable[0], pvLength[0]);
+                reporter.accept(new SearchReport.Iteration(depth, alpha, nodes, elapsed, pv));
+            }
+
+            // entschiedene Stellung oder die nächste Tiefe passt voraussichtlich nicht mehr
+            if (Math.abs(alpha) >= WIN_THRESHOLD) break;
+            if (!helper && elapsed > (deadlineNanos - start) / 2) break;
+        }
+        return new Result(best.move, best.score, best.depth, nodes, System.nanoTime() - start,
+                ordering.getFirstMoveCutoffRate());
+    }
+
+    private int negamax(int depth, int ply, int alpha, int beta) {
+        if ((++nodes & TIME_CHECK_MASK) == 0 && (stop.get() || System.nanoTime() > deadline)) aborted = true;
+        if (aborted) return 0;
+        if (reporter != null) pvLength[ply] = ply;
+
+        int[] moves = moveBuffers[ply];
+        int count = board.generateMoves(board.getSideToMove(), moves);
+        if (count == 0) return -(WIN_SCORE - ply); // blockiert: verloren
+        for (int i = 0; i < count; i++) {
+            if (Move.isWin(moves[i])) {
+                if (reporter != null) {
+                    pvTable[ply][ply] = moves[i];
+                    pvLength[ply] = ply + 1;
+                }
+                return WIN_SCORE - ply - 1;
+            }
+        }
+        if (endgame != null) {
+            int entry = endgame.probe(board, endgameScratch);
+            if (entry != 0) return EndgameTable.toScore(entry, ply);
+        }
+        if (depth <= 0 || ply >= MAX_PLY) {
+            int eval = evaluator.evaluateBoard(board, board.getSideToMove());
+            return Math.max(-WIN_THRESHOLD + 1, Math.min(WIN_THRESHOLD - 1, eval));
+        }
+
+        long hash = 0;
+        int alphaOrig = alpha;
+        int hashMove = -1;
+        if (table != null) {
+            hash = board.getHash();
+            long entry = table.probe(hash);
+            if (entry != 0) {
+                if (TranspositionTable.depth(entry) >= depth) {
+                    int score = scoreFromTable(TranspositionTable.score(entry), ply);
+                    int bound = TranspositionTable.bound(entry);
+                    if (bound == TranspositionTable.BOUND_EXACT
+                            || (bound == TranspositionTable.BOUND_LOWER && score >= beta)
+                            || (bound == TranspositionTable.BOUND_UPPER && score <= alpha)) {
+                        return score;
+                    }
+                }
+                int ttMove = TranspositionTable.moveId(entry);
+                if (ttMove >= 0) hashMove = Move.byId(ttMove).toPacked();
+            }
+        }
+
+        int side = board.getSideToMove();
+        ordering.scoreMoves(board, side, moves, count, ply, hashMove);
+
+        int best = -INFINITY;
+        int bestMove = -1;
+        for (int i = 0; i < count; i++) {
+            ordering.pickNext(moves, count, ply, i);
+            int token = board.makeMove(moves[i]);
+            int score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            board.unmakeMove(token);
+            if (aborted) return 0;
+
+            if (score > best) {
+                best = score;
+                bestMove = moves[i];
+                if (score > alpha) {
+                    alpha = score;
+                    if (reporter != null) updatePv(ply, moves[i]);
+                    if (alpha >= beta) {
+                        ordering.recordCutoff(side, moves[i], ply, depth, i);
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (table != null) {
+            int bound = best >= beta ? TranspositionTable.BOUND_LOWER
+                    : best > alphaOrig ? TranspositionTable.BOUND_EXACT : TranspositionTable.BOUND_UPPER;
+            int moveId = bound == TranspositionTable.BOUND_UPPER ? -1 : Move.idOf(bestMove);
+            table.store(hash, depth, bound, scoreToTable(best, ply), moveId);
+        }
+        return best;
+    }
+
+    // Hauptvariante ab ply = move + Hauptvariante des Kindes
+    private void updatePv(int ply, int move) {
+        int[] line = pvTable[ply];
+        line[ply] = move;
+        int childLength = Math.max(pvLength[ply + 1], ply + 1);
+        System.arraycopy(pvTable[ply + 1], ply + 1, line, ply + 1, childLength - ply - 1);
+        pvLength[ply] = childLength;
+    }
+
+    // mischt alle Züge außer dem ersten (Fisher-Yates)
+    private void shuffleTail(int[] moves, int count) {
+        for (int i = count - 1; i > 1; i--) {
+            int j = 1 + random.nextInt(i);
+            int tmp = moves[i];
+            moves[i] = moves[j];
+            moves[j] = tmp;
+        }
+    }
+
+    // Gewinnbewertungen werden relativ zur gespeicherten Stellung abgelegt (Abstand statt Ply)
+    static int scoreToTable(int score, int ply) {
+        if (score >= WIN_THRESHOLD) return score + ply;
+        if (score <= -WIN_THRESHOLD) return score - ply;
+        return score;
+    }
+
+    static int scoreFromTable(int score, int ply) {
+        if (score >= WIN_THRESHOLD) return score - ply;
+        if (score <= -WIN_THRESHOLD) return score + ply;
+        return score;
+    }
+}
@@ -2,23 +2,162 @@ import java.util.*;
 
 /**
  * Verwaltet den Zustand des Spielfelds, einschließlich Bauleveln und Arbeiterpositionen.
+ *
+ * Intern wird das Feld als Bitboard gehalten: jedes der 25 Felder hat einen Index
+ * (square = row * BOARD_SIZE + col) und ein Bit in einer int-Maske. Level und Arbeiter
+ * liegen als Masken vor, Bewegungs- und Bauziele werden per Masken-Arithmetik berechnet.
+ * Die koordinatenbasierten Methoden (int[] {col, row}) bleiben als Adapter erhalten.
  */
 public class Board {
     public static final int BOARD_SIZE = 5;
     public static final int MAX_LEVEL = 4; // Level 4 ist Kuppel
     private static final int WIN_LEVEL = 3;
 
-    private final int[][] buildingLevels;
-    private final Map<String, List<Worker>> workers;
-    private final List<String> playerIds;
+    public static final int NUM_SQUARES = BOARD_SIZE * BOARD_SIZE;
+    public static final int FULL_MASK = (1 << NUM_SQUARES) - 1;
+    public static final int MAX_WORKERS = 2; // Arbeiter pro Spieler
+    public static final int MAX_MOVES = MAX_WORKERS * 8 * 8; // obere Schranke für generateMoves
+    public static final int MAX_PLAYERS = 3;
+
+    private static final int FIRST_COL_MASK;
+    private static final int LAST_COL_MASK;
+
+    // Vorberechnete Nachbarschaft pro Feldindex (einmalig beim Laden der Klasse)
+    private static final int[] NEIGHBOR_MASKS = new int[NUM_SQUARES];
+    private static final int[][] NEIGHBOR_SQUARES = new int[NUM_SQUARES][];
+    // geteilte, unveränderliche Koordinaten-Arrays {col, row} – nicht verändern!
+    private static final int[][] COORDS = new int[NUM_SQUARES][];
+    private static final List<List<int[]>> NEIGHBOR_COORDS = new ArrayList<>(NUM_SQUARES);
+
+    // Zobrist-Schlüssel (fester Seed, damit Hashes über Läufe und Dateien hinweg stabil sind)
+    private static final long[][] ZOBRIST_LEVEL = new long[NUM_SQUARES][MAX_LEVEL + 1];
+    private static final long[][] ZOBRIST_WORKER = new long[MAX_PLAYERS][NUM_SQUARES];
+    private static final long[] ZOBRIST_SIDE = new long[MAX_PLAYERS];
+
+    // Prüfmodus: vergleicht den inkrementellen Hash nach jeder Änderung mit einer Neuberechnung
+    private static boolean validateHash = Boolean.getBoolean("santorini.validateHash");
+
+    static {
+        int first = 0;
+        int last = 0;
+        for (int r = 0; r < BOARD_SIZE; r++) {
+            first |= 1 << square(0, r);
+            last |= 1 << square(BOARD_SIZE - 1, r);
+        }
+        FIRST_COL_MASK = first;
+        LAST_COL_MASK = last;
+
+        for (int sq = 0; sq < NUM_SQUARES; sq++) {
+            COORDS[sq] = new int[]{colOf(sq), rowOf(sq)};
+        }
+        for (int sq = 0; sq < NUM_SQUARES; sq++) {
+            int mask = neighborMask(1 << sq);
+            NEIGHBOR_MASKS[sq] = mask;
+            NEIGHBOR_SQUARES[sq] = new int[Integer.bitCount(mask)];
+            for (int i = 0; mask != 0; i++) {
+                NEIGHBOR_SQUARES[sq][i] = Integer.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+            }
+            NEIGHBOR_COORDS.add(Collections.unmodifiableList(toCoordList(NEIGHBOR_MASKS[sq])));
+        }
+
+        Random zobrist = new Random(0x5A4E7031L);
+        for (int sq = 0; sq < NUM_SQUARES; sq++) {
+            // Level 0 bekommt Schlüssel 0, damit ein leeres Feld nichts beiträgt
+            for (int l = 1; l <= MAX_LEVEL; l++) ZOBRIST_LEVEL[sq][l] = zobrist.nextLong();
+        }
+        for (int p = 0; p < MAX_PLAYERS; p++) {
+            for (int sq = 0; sq < NUM_SQUARES; sq++) ZOBRIST_WORKER[p][sq] = zobrist.nextLong();
+            ZOBRIST_SIDE[p] = zobrist.nextLong();
+        }
+    }
+
+    // levelMasks[l] = alle Felder mit Level >= l (levelMasks[0] = ganzes Feld)
+    private final int[] levelMasks;
+    // workerMasks[p] = Felder mit Arbeitern von Spieler p (Index in playerIds)
+    private final int[] workerMasks;
+    private int occupiedMask;
+    // squareOwner[square] = Spielerindex des Arbeiters auf dem Feld oder -1
+    private final byte[] squareOwner;
+    // workerSquares[p * MAX_WORKERS + slot] = Feld des Arbeiters oder -1
+    private final int[] workerSquares;
+    private final int[] workerNumbers;
+    private final String[] playerIds; // nur für UI/Persistenz, der Kern rechnet mit Indizes
+
+    private int sideToMove;
+    // hashes[t] = Zobrist-Hash der unter Symmetrie t transformierten Stellung (t = 0: Original)
+    private final long[] hashes = new long[Symmetry.COUNT];
+
+    // Undo-Stapel für makeMove/unmakeMove: gepackter Zug | (Spielerindex << 16) | (vorheriger Zugspieler << 18)
+    private int[] undoStack = new int[64];
+    private int undoTop;
 
     public Board(List<String> playerIds) {
-        this.playerIds = new ArrayList<>(playerIds);
-        this.buildingLevels = new int[BOARD_SIZE][BOARD_SIZE];
-        this.workers = new HashMap<>();
-        for (String id : this.playerIds) {
-            workers.put(id, new ArrayList<>());
+        this(playerIds.toArray(new String[0]));
+    }
+
+    private Board(String[] playerIds) {
+        if (playerIds.length > MAX_PLAYERS) {
+            throw new IllegalArgumentException("Maximal " + MAX_PLAYERS + " Spieler unterstützt");
         }
+        this.playerIds = playerIds;
+        this.levelMasks = new int[MAX_LEVEL + 1];
+        this.levelMasks[0] = FULL_MASK;
+        this.workerMasks = new int[this.playerIds.length];
+        this.workerSquares = new int[this.playerIds.length * MAX_WORKERS];
+        this.workerNumbers = new int[this.playerIds.length * MAX_WORKERS];
+        this.squareOwner = new byte[NUM_SQUARES];
+        Arrays.fill(workerSquares, -1);
+        Arrays.fill(squareOwner, (byte) -1);
+        Arrays.fill(hashes, ZOBRIST_SIDE[0]);
+    }
+
+    //  Feld-Indizes
+
+    public static int square(int col, int row) {
+        return row * BOARD_SIZE + col;
+    }
+
+    public static int colOf(int square) {
+        return square % BOARD_SIZE;
+    }
+
+    public static int rowOf(int square) {
+        return square / BOARD_SIZE;
+    }
+
+    /**
+     * Nachbarfelder (8er-Nachbarschaft) eines Feldes als 25-Bit-Maske (Tabellenzugriff).
+     */
+    public static int neighbors(int square) {
+        return NEIGHBOR_MASKS[square];
+    }
+
+    /**
+     * Nachbarfelder eines Feldes als Liste von Feldindizes (geteiltes Array, nicht verändern).
+     */
+    public static int[] neighborSquares(int square) {
+        return NEIGHBOR_SQUARES[square];
+    }
+
+    public static boolean isNeighbor(int a, int b) {
+        return (NEIGHBOR_MASKS[a] & (1 << b)) != 0;
+    }
+
+    /**
+     * Koordinaten {col, row} eines Feldes (geteiltes Array, nicht verändern).
+     */
+    public static int[] coordOf(int square) {
+        return COORDS[square];
+    }
+
+    /**
+     * Alle Nachbarfelder (8er-Nachbarschaft) der Felder in {@code bits} als Maske.
+     */
+    public static int neighborMask(int bits) {
+        int horizontal = ((bits << 1) & ~FIRST_COL_MASK & FULL_MASK) | ((bits >>> 1) & ~LAST_COL_MASK);
+        int rowBits = bits | horizontal;
+        return (horizontal | (rowBits << BOARD_SIZE) | (rowBits >>> BOARD_SIZE)) & FULL_MASK;
     }
 
     //  Zustand abfragen
@@ -26,27 +165,48 @@ public class Board {
     public String getWorkerIdAt(int col, int row) {
         if (!isValidCoord(col, row)) return null;
 
-        for (Map.Entry<String, List<Worker>> entry : workers.entrySet()) {
-            for (Worker worker : entry.getValue()) {
-                int[] c = worker.getCoord();
-                if (c[0] == col && c[1] == row) return entry.getKey();
-            }
-        }
-        return null;
+        int owner = squareOwner[square(col, row)];
+        return owner < 0 ? null : playerIds[owner];
     }
 
     public boolean isOccupied(int col, int row) {
-        return getWorkerIdAt(col, row) != null;
+        return isValidCoord(col, row) && squareOwner[square(col, row)] >= 0;
+    }
+
+    /**
+     * Spielerindex des Arbeiters auf {@code square} oder -1, wenn das Feld frei ist.
+     */
+    public int getOwnerAt(int square) {
+        return squareOwner[square];
     }
 
     public int getLevel(int col, int row) {
         if (!isValidCoord(col, row)) return -1;
-        return buildingLevels[col][row];
+        return levelAt(square(col, row));
+    }
+
+    /**
+     * Level eines Feldes über seinen Index (ohne Bereichsprüfung).
+     */
+    public int levelAt(int square) {
+        return ((levelMasks[1] >>> square) & 1)
+                + ((levelMasks[2] >>> square) & 1)
+                + ((levelMasks[3] >>> square) & 1)
+                + ((levelMasks[4] >>> square) & 1);
     }
 
     public void setLevel(int col, int row, int level) {
         if (isValidCoord(col, row)) {
-            buildingLevels[col][row] = Math.max(0, Math.min(level, MAX_LEVEL));
+            int clamped = Math.max(0, Math.min(level, MAX_LEVEL));
+            int sq = square(col, row);
+            int bit = 1 << sq;
+            xorLevelKey(sq, levelAt(sq));
+            xorLevelKey(sq, clamped);
+            for (int l = 1; l <= MAX_LEVEL; l++) {
+                if (l <= clamped) levelMasks[l] |= bit;
+                else levelMasks[l] &= ~bit;
+            }
+            if (validateHash) verifyHash();
         }
     }
 
@@ -58,6 +218,52 @@ public class Board {
         return col >= 0 && col < BOARD_SIZE && row >= 0 && row < BOARD_SIZE;
     }
 
+    /**
+     * Maske aller Felder mit Level >= level (level 4 = Kuppeln).
+     */
+    public int getLevelMask(int level) {
+        return levelMasks[level];
+    }
+
+    public int getWorkerMask(int playerIndex) {
+        return workerMasks[playerIndex];
+    }
+
+    public int getOccupiedMask() {
+        return occupiedMask;
+    }
+
+    /**
+     * Bewegungsziele eines Arbeiters auf {@code square}: freie Nachbarn ohne Kuppel,
+     * die höchstens ein Level über dem aktuellen liegen.
+     */
+    public int getMoveTargetMask(int square) {
+        int blocked = levelMasks[Math.min(levelAt(square) + 2, MAX_LEVEL)];
+        return NEIGHBOR_MASKS[square] & ~occupiedMask & ~blocked;
+    }
+
+    /**
+     * Bauziele rund um {@code square}: freie Nachbarn ohne Kuppel.
+     */
+    public int getBuildTargetMask(int square) {
+        return NEIGHBOR_MASKS[square] & ~occupiedMask & ~levelMasks[MAX_LEVEL];
+    }
+
+    /**
+     * Gewinnfelder von {@code playerIndex}: freie Level-3-Felder neben einem seiner Arbeiter
+     * auf Level 2 (oder höher), die er im nächsten Zug betreten und damit gewinnen kann.
+     */
+    public int getWinningStepMask(int playerIndex) {
+        int level3 = levelMasks[WIN_LEVEL] & ~levelMasks[MAX_LEVEL] & ~occupiedMask;
+        int climbers = workerMasks[playerIndex] & levelMasks[WIN_LEVEL - 1];
+        int reach = 0;
+        while (climbers != 0) {
+            reach |= NEIGHBOR_MASKS[Integer.numberOfTrailingZeros(climbers)];
+            climbers &= climbers - 1;
+        }
+        return reach & level3;
+    }
+
     // --- Gewinnprüfung ---
     public boolean checkWin(int[] moveTo) {
         if (moveTo == null) return false;
@@ -69,96 +275,294 @@ public class Board {
     public Board clone() {
         Board copy = new Board(this.playerIds);
 
-        for (int c = 0; c < BOARD_SIZE; c++) {
-            for (int r = 0; r < BOARD_SIZE; r++) {
-                copy.buildingLevels[c][r] = this.buildingLevels[c][r];
-            }
+        System.arraycopy(levelMasks, 0, copy.levelMasks, 0, levelMasks.length);
+        System.arraycopy(workerMasks, 0, copy.workerMasks, 0, workerMasks.length);
+        System.arraycopy(workerSquares, 0, copy.workerSquares, 0, workerSquares.length);
+        System.arraycopy(workerNumbers, 0, copy.workerNumbers, 0, workerNumbers.length);
+        System.arraycopy(squareOwner, 0, copy.squareOwner, 0, NUM_SQUARES);
+        copy.occupiedMask = occupiedMask;
+        copy.sideToMove = sideToMove;
+        System.arraycopy(hashes, 0, copy.hashes, 0, Symmetry.COUNT);
+
+        return copy;
+    }
+
+    //  Nachbarn
+    /**
+     * Liefert die vorberechnete, unveränderliche Nachbarliste des Feldes (keine Allokation).
+     */
+    public List<int[]> getNeighbors(int[] coord) {
+        if (coord == null || !isValidCoord(coord[0], coord[1])) return Collections.emptyList();
+        return NEIGHBOR_COORDS.get(square(coord[0], coord[1]));
+    }
+
+    //  gültige Ziele
+    public List<int[]> getValidMoveTargets(int[] workerCoord) {
+        if (workerCoord == null || !isValidCoord(workerCoord[0], workerCoord[1])) return new ArrayList<>();
+        return toCoordList(getMoveTargetMask(square(workerCoord[0], workerCoord[1])));
+    }
+
+    public List<int[]> getValidBuildTargets(int[] workerCoord) {
+        if (workerCoord == null || !isValidCoord(workerCoord[0], workerCoord[1])) return new ArrayList<>();
+        return toCoordList(getBuildTargetMask(square(workerCoord[0], workerCoord[1])));
+    }
+
+    private static List<int[]> toCoordList(int mask) {
+        List<int[]> coords = new ArrayList<>(Integer.bitCount(mask));
+        while (mask != 0) {
+            int sq = Integer.numberOfTrailingZeros(mask);
+            coords.add(COORDS[sq]);
+            mask &= mask - 1;
         }
+        return coords;
+    }
+
+    //  Zuggenerator
+
+    /**
+     * Schreibt alle legalen Züge von {@code playerIndex} gepackt (siehe {@link Move#pack})
+     * in {@code buffer} und liefert deren Anzahl. Der Puffer gehört dem Aufrufer und muss
+     * mindestens {@link #MAX_MOVES} Einträge haben; pro Aufruf wird nichts allokiert.
+     * Kann ein Arbeiter auf Level 3 ziehen, wird nur der Gewinnzug (ohne Bau) erzeugt.
+     */
+    public int generateMoves(int playerIndex, int[] buffer) {
+        int count = 0;
+        int domes = levelMasks[MAX_LEVEL];
+        int workers = workerMasks[playerIndex];
+
+        while (workers != 0) {
+            int from = Integer.numberOfTrailingZeros(workers);
+            workers &= workers - 1;
+
+            int targets = getMoveTargetMask(from);
+            int winTargets = targets & levelMasks[WIN_LEVEL];
+            // nach dem Zug ist das Startfeld frei und darf bebaut werden
+            int blockedForBuild = (occupiedMask & ~(1 << from)) | domes;
+
+            while (targets != 0) {
+                int to = Integer.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+
+                if ((winTargets & (1 << to)) != 0) {
+                    buffer[count++] = Move.pack(from, to, Move.NO_SQUARE);
+                    continue;
+                }
 
-        for (String pid : playerIds) {
-            for (Worker w : workers.get(pid)) {
-                int[] coord = w.getCoord();
-                copy.placeWorker(pid, w.getWorkerId(), coord[0], coord[1]);
+                int builds = NEIGHBOR_MASKS[to] & ~blockedForBuild;
+                while (builds != 0) {
+                    int build = Integer.numberOfTrailingZeros(builds);
+                    builds &= builds - 1;
+                    buffer[count++] = Move.pack(from, to, build);
+                }
             }
         }
+        return count;
+    }
 
-        return copy;
+    //  Make/Unmake
+
+    /**
+     * Führt einen gepackten Zug in O(1) auf diesem Board aus (Bewegen und ggf. Bauen)
+     * und legt einen Undo-Eintrag ab. Die Legalität wird nicht geprüft – der Zug muss
+     * aus {@link #generateMoves} stammen oder vorher validiert worden sein.
+     *
+     * @return Undo-Token; {@link #unmakeMove(int)} mit diesem Token stellt den Zustand
+     *         vor dem Zug wieder her (inklusive aller später ausgeführten Züge).
+     */
+    public int makeMove(int packed) {
+        int from = Move.fromSquare(packed);
+        int to = Move.toSquare(packed);
+        int player = squareOwner[from];
+        if (player < 0) throw new IllegalArgumentException("Kein Arbeiter auf Feld " + from);
+
+        if (undoTop == undoStack.length) undoStack = Arrays.copyOf(undoStack, undoTop * 2);
+        int token = undoTop;
+        undoStack[undoTop++] = (packed & 0xFFFF) | (player << 16) | (sideToMove << 18);
+
+        relocateWorker(player, findSlot(player, from), from, to);
+        if (!Move.isWin(packed)) {
+            raiseLevel(Move.buildSquare(packed));
+        }
+        changeSide((player + 1) % workerMasks.length);
+
+        if (validateHash) verifyHash();
+        return token;
     }
 
-    //  Nachbarn
-    public List<int[]> getNeighbors(int[] coord) {
-        List<int[]> neighbors = new ArrayList<>();
-        if (coord == null) return neighbors;
-
-        int col = coord[0];
-        int row = coord[1];
-
-        for (int dc = -1; dc <= 1; dc++) {
-            for (int dr = -1; dr <= 1; dr++) {
-                if (dc == 0 && dr == 0) continue;
-                int nc = col + dc;
-                int nr = row + dr;
-                if (isValidCoord(nc, nr)) neighbors.add(new int[]{nc, nr});
+    public int makeMove(Move move) {
+        return makeMove(move.toPacked());
+    }
+
+    /**
+     * Nimmt alle Züge zurück, die seit dem zu {@code token} gehörenden makeMove ausgeführt wurden.
+     */
+    public void unmakeMove(int token) {
+        while (undoTop > token) {
+            int record = undoStack[--undoTop];
+            int player = (record >>> 16) & 3;
+            int from = Move.fromSquare(record);
+            int to = Move.toSquare(record);
+
+            changeSide(record >>> 18);
+            if (!Move.isWin(record)) {
+                int build = Move.buildSquare(record);
+                int level = levelAt(build);
+                levelMasks[level] &= ~(1 << build);
+                xorLevelKey(build, level);
+                xorLevelKey(build, level - 1);
             }
+            relocateWorker(player, findSlot(player, to), to, from);
         }
+        if (validateHash) verifyHash();
+    }
+
+    //  Zugspieler und Hash
 
-        return neighbors;
+    public int getSideToMove() {
+        return sideToMove;
     }
 
-    //  gültige Ziele
-    public List<int[]> getValidMoveTargets(int[] workerCoord) {
-        List<int[]> targets = new ArrayList<>();
-        if (workerCoord == null) return targets;
+    public void setSideToMove(int playerIndex) {
+        changeSide(playerIndex);
+        if (validateHash) verifyHash();
+    }
 
-        int currentLevel = getLevel(workerCoord[0], workerCoord[1]);
+    private void changeSide(int playerIndex) {
+        long delta = ZOBRIST_SIDE[sideToMove] ^ ZOBRIST_SIDE[playerIndex];
+        for (int t = 0; t < Symmetry.COUNT; t++) hashes[t] ^= delta;
+        sideToMove = playerIndex;
+    }
 
-        for (int[] t : getNeighbors(workerCoord)) {
-            int c = t[0], r = t[1];
-            if (isOccupied(c, r)) continue;
-            if (isDomed(c, r)) continue;
+    /**
+     * 64-Bit-Zobrist-Hash der Stellung (Level, Arbeiter je Spieler, Zugspieler), inkrementell gepflegt.
+     */
+    public long getHash() {
+        return hashes[Symmetry.IDENTITY];
+    }
 
-            int level = getLevel(c, r);
-            if (level <= currentLevel + 1) targets.add(t);
-        }
+    /**
+     * Hash der unter Symmetrie t transformierten Stellung (siehe {@link Symmetry}).
+     */
+    public long getSymmetricHash(int t) {
+        return hashes[t];
+    }
 
-        return targets;
+    /**
+     * Symmetrie-invarianter Hash: der kleinste der 8 Hashes (gleich für alle symmetrischen Stellungen).
+     */
+    public long getCanonicalHash() {
+        long best = hashes[0];
+        for (int t = 1; t < Symmetry.COUNT; t++) best = Math.min(best, hashes[t]);
+        return best;
     }
 
-    public List<int[]> getValidBuildTargets(int[] workerCoord) {
-        List<int[]> targets = new ArrayList<>();
-        if (workerCoord == null) return targets;
+    /**
+     * Berechnet den Hash vollständig neu (für Prüfungen; im Normalbetrieb {@link #getHash()} verwenden).
+     */
+    public long computeHash() {
+        return computeHash(Symmetry.IDENTITY);
+    }
 
-        for (int[] t : getNeighbors(workerCoord)) {
-            int c = t[0], r = t[1];
-            if (isDomed(c, r)) continue;
-            if (isOccupied(c, r)) continue;
-            targets.add(t);
+    public long computeHash(int t) {
+        long h = ZOBRIST_SIDE[sideToMove];
+        for (int sq = 0; sq < NUM_SQUARES; sq++) {
+            int image = Symmetry.map(t, sq);
+            h ^= ZOBRIST_LEVEL[image][levelAt(sq)];
+            if (squareOwner[sq] >= 0) h ^= ZOBRIST_WORKER[squareOwner[sq]][image];
         }
+        return h;
+    }
 
-        return targets;
+    /**
+     * Schaltet den Prüfmodus ein/aus (alternativ -Dsantorini.validateHash=true).
+     */
+    public static void setHashValidation(boolean enabled) {
+        validateHash = enabled;
+    }
+
+    private void verifyHash() {
+        for (int t = 0; t < Symmetry.COUNT; t++) {
+            long expected = computeHash(t);
+            if (hashes[t] != expected) {
+                throw new IllegalStateException("Zobrist-Hash (Symmetrie " + t + ") inkonsistent: "
+                        + Long.toHexString(hashes[t]) + " statt " + Long.toHexString(expected));
+            }
+        }
+    }
+
+    private void xorLevelKey(int square, int level) {
+        for (int t = 0; t < Symmetry.COUNT; t++) hashes[t] ^= ZOBRIST_LEVEL[Symmetry.map(t, square)][level];
+    }
+
+    private void xorWorkerKey(int player, int square) {
+        for (int t = 0; t < Symmetry.COUNT; t++) hashes[t] ^= ZOBRIST_WORKER[player][Symmetry.map(t, square)];
+    }
+
+    private void relocateWorker(int player, int slot, int from, int to) {
+        workerSquares[slot] = to;
+        squareOwner[from] = -1;
+        squareOwner[to] = (byte) player;
+        int delta = (1 << from) | (1 << to);
+        workerMasks[player] ^= delta;
+        occupiedMask ^= delta;
+        xorWorkerKey(player, from);
+        xorWorkerKey(player, to);
+    }
+
+    private void raiseLevel(int square) {
+        int level = levelAt(square);
+        levelMasks[level + 1] |= 1 << square;
+        xorLevelKey(square, level);
+        xorLevelKey(square, level + 1);
     }
 
     //  Änderungen am Board
+    //  Die String-Varianten sind Adapter für UI und Persistenz; der Kern arbeitet mit Spielerindizes.
 
     public boolean placeWorker(String playerId, int workerId, int col, int row) {
-        if (!playerIds.contains(playerId)) return false;
+        int p = getPlayerIndex(playerId);
+        return p >= 0 && placeWorker(p, workerId, col, row);
+    }
+
+    public boolean placeWorker(int player, int workerId, int col, int row) {
+        if (player < 0 || player >= workerMasks.length) return false;
         if (!isValidCoord(col, row)) return false;
         if (isOccupied(col, row)) return false;
 
-        workers.get(playerId).add(new Worker(playerId, workerId, col, row));
-        return true;
+        int sq = square(col, row);
+        for (int slot = player * MAX_WORKERS; slot < (player + 1) * MAX_WORKERS; slot++) {
+            if (workerSquares[slot] < 0) {
+                workerSquares[slot] = sq;
+                workerNumbers[slot] = workerId;
+                workerMasks[player] |= 1 << sq;
+                occupiedMask |= 1 << sq;
+                squareOwner[sq] = (byte) player;
+                xorWorkerKey(player, sq);
+                if (validateHash) verifyHash();
+                return true;
+            }
+        }
+        return false;
     }
 
     public boolean moveWorker(String playerId, int[] from, int[] to) {
-        if (!playerIds.contains(playerId)) return false;
+        int p = getPlayerIndex(playerId);
+        if (p < 0) return false;
         if (from == null || to == null) return false;
+        if (!isValidCoord(from[0], from[1])) return false;
         if (!isValidCoord(to[0], to[1])) return false;
-        if (isOccupied(to[0], to[1])) return false;
+        return moveWorker(p, square(from[0], from[1]), square(to[0], to[1]));
+    }
 
-        Worker w = getWorker(playerId, from);
-        if (w == null) return false;
+    public boolean moveWorker(int player, int fromSquare, int toSquare) {
+        if (player < 0 || player >= workerMasks.length) return false;
+        if (squareOwner[toSquare] >= 0) return false;
 
-        w.setCoord(to[0], to[1]);
+        int slot = findSlot(player, fromSquare);
+        if (slot < 0) return false;
+
+        relocateWorker(player, slot, fromSquare, toSquare);
+        if (validateHash) verifyHash();
         return true;
     }
 
@@ -168,29 +572,131 @@ public class Board {
         int r = buildAt[1];
         if (!isValidCoord(c, r)) return false;
 
-        if (buildingLevels[c][r] >= MAX_LEVEL) return false;
-        buildingLevels[c][r]++;
+        int sq = square(c, r);
+        if (levelAt(sq) >= MAX_LEVEL) return false;
+        raiseLevel(sq);
 
+        if (validateHash) verifyHash();
         return true;
     }
 
     //  Arbeiter Hilfen
 
-    public Worker getWorker(String playerId, int[] coord) {
-        if (!playerIds.contains(playerId)) return null;
-        for (Worker w : workers.get(playerId)) {
-            int[] c = w.getCoord();
-            if (c[0] == coord[0] && c[1] == coord[1]) return w;
+    private int findSlot(int playerIndex, int square) {
+        for (int slot = playerIndex * MAX_WORKERS; slot < (playerIndex + 1) * MAX_WORKERS; slot++) {
+            if (workerSquares[slot] == square) return slot;
         }
-        return null;
+        return -1;
+    }
+
+    public Worker getWorker(String playerId, int[] coord) {
+        int p = getPlayerIndex(playerId);
+        if (p < 0 || coord == null || !isValidCoord(coord[0], coord[1])) return null;
+        int slot = findSlot(p, square(coord[0], coord[1]));
+        if (slot < 0) return null;
+        return new Worker(getPlayerId(p), p, workerNumbers[slot], coord[0], coord[1]);
     }
 
     public List<Worker> getWorkersByPlayer(String pid) {
-        return new ArrayList<>(workers.get(pid));
+        int p = getPlayerIndex(pid);
+        return p < 0 ? null : getWorkersByPlayer(p);
+    }
+
+    public List<Worker> getWorkersByPlayer(int player) {
+        List<Worker> list = new ArrayList<>(MAX_WORKERS);
+        for (int slot = player * MAX_WORKERS; slot < (player + 1) * MAX_WORKERS; slot++) {
+            int sq = workerSquares[slot];
+            if (sq >= 0) list.add(new Worker(getPlayerId(player), player, workerNumbers[slot], colOf(sq), rowOf(sq)));
+        }
+        return list;
+    }
+
+    public int getNumPlayers() {
+        return workerMasks.length;
+    }
+
+    public int getPlayerIndex(String playerId) {
+        for (int p = 0; p < playerIds.length; p++) {
+            if (playerIds[p].equals(playerId)) return p;
+        }
+        return -1;
+    }
+
+    public String getPlayerId(int playerIndex) {
+        return playerIds[playerIndex];
     }
 
     public List<String> getPlayerIds() {
-        return new ArrayList<>(playerIds);
+        return new ArrayList<>(Arrays.asList(playerIds));
+    }
+
+    /**
+     * Standard-Zuordnung der Spieler-IDs "P1".."Pn" zu Indizes 0..n-1 (Konvention von
+     * SantoriniGame, SantoriniGUI und Trainer); -1 für andere IDs.
+     */
+    public static int defaultPlayerIndex(String playerId) {
+        if (playerId == null || playerId.length() != 2 || playerId.charAt(0) != 'P') return -1;
+        int index = playerId.charAt(1) - '1';
+        return index >= 0 && index < MAX_PLAYERS ? index : -1;
+    }
+
+    //  Stellungs-Notation
+
+    /**
+     * Textform der Stellung: 25 Level-Ziffern (Feldindex 0..24, also a1..e1, a2..e5), danach
+     * pro Spieler die Arbeiterfelder (z.B. "b2,d4" oder "-") und zuletzt der Zugspieler.
+     * Beispiel: {@code "0000000000000000000000000 b2,d4 b4,d2 P1"}.
+     */
+    public String toNotation() {
+        StringBuilder sb = new StringBuilder();
+        for (int sq = 0; sq < NUM_SQUARES; sq++) sb.append(levelAt(sq));
+        for (int p = 0; p < workerMasks.length; p++) {
+            sb.append(' ');
+            int mask = workerMasks[p];
+            if (mask == 0) sb.append('-');
+            while (mask != 0) {
+                int sq = Integer.numberOfTrailingZeros(mask);
+                sb.append((char) ('a' + colOf(sq))).append((char) ('1' + rowOf(sq)));
+                mask &= mask - 1;
+                if (mask != 0) sb.append(',');
+            }
+        }
+        return sb.append(' ').append(playerIds[sideToMove]).toString();
+    }
+
+    /**
+     * Liest eine Stellung im Format von {@link #toNotation()}; die Spieler heißen P1..Pn.
+     */
+    public static Board fromNotation(String notation) {
+        String[] parts = notation.trim().split("\\s+");
+        if (parts.length < 4 || parts[0].length() != NUM_SQUARES) {
+            throw new IllegalArgumentException("Ungültige Stellungs-Notation: " + notation);
+        }
+        List<String> ids = new ArrayList<>();
+        for (int p = 1; p < parts.length - 1; p++) ids.add("P" + p);
+
+        Board board = new Board(ids);
+        for (int sq = 0; sq < NUM_SQUARES; sq++) {
+            char ch = parts[0].charAt(sq);
+            if (ch < '0' || ch > '0' + MAX_LEVEL) throw new IllegalArgumentException("Ungültiges Level: " + ch);
+            board.setLevel(colOf(sq), rowOf(sq), ch - '0');
+        }
+        for (int p = 0; p < ids.size(); p++) {
+            String workers = parts[p + 1];
+            if (workers.equals("-")) continue;
+            int workerId = 1;
+            for (String cell : workers.split(",")) {
+                int col = cell.length() == 2 ? cell.charAt(0) - 'a' : -1;
+                int row = cell.length() == 2 ? cell.charAt(1) - '1' : -1;
+                if (!board.isValidCoord(col, row) || !board.placeWorker(p, workerId++, col, row)) {
+                    throw new IllegalArgumentException("Ungültiges Arbeiterfeld: " + cell);
+                }
+            }
+        }
+        int side = ids.indexOf(parts[parts.length - 1]);
+        if (side < 0) throw new IllegalArgumentException("Unbekannter Zugspieler: " + parts[parts.length - 1]);
+        board.setSideToMove(side);
+        return board;
     }
 
     //  Anzeige
@@ -0,0 +1,59 @@
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Lernbare Stellungsbewertung als Alternative zum linearen 8-Gewichte-Modell des
+ * {@link ReflexAgent}. Auswahl über -Dsantorini.evaluator (linear, mlp, ntuple; Standard linear).
+ *
+ * Der ReflexAgent bewertet damit die Stellung nach jedem Kandidatenzug und die Blätter der
+ * Suche; Gewinnzüge und das Abwehren gegnerischer Gewinnzüge bleiben exakte Features. Gelernt
+ * wird am Spielende über {@link SmartAgent#notifyGameEnd}.
+ */
+public interface BoardEvaluator {
+
+    /**
+     * Wert der Stellung aus Sicht von {@code playerIndex} in [-1, 1] (1 = sicherer Gewinn).
+     * Definiert für Stellungen nach dem Zug von {@code playerIndex}, also mit einem anderen
+     * Spieler am Zug; nur solche werden auch trainiert (der ReflexAgent rechnet Suchblätter
+     * entsprechend um). Muss ohne Allokation auskommen und darf von mehreren Suchthreads
+     * gleichzeitig gerufen werden.
+     */
+    double evaluate(Board board, int playerIndex);
+
+    /**
+     * Merkt sich eine Stellung des laufenden Spiels (nach dem eigenen Zug) für {@link #learn}.
+     */
+    void recordPosition(Board board, int playerIndex);
+
+    /**
+     * Trainiert auf den gemerkten Stellungen mit dem Spielergebnis {@code reward} in [-1, 1]
+     * und vergisst sie danach.
+     */
+    void learn(double reward);
+
+    void save(Path file) throws IOException;
+
+    void load(Path file) throws IOException;
+
+    /**
+     * Kurzname, zugleich Präfix der Gewichtsdatei (z.B. mlp_P1.bin).
+     */
+    String getName();
+
+    /**
+     * Bewertung nach -Dsantorini.evaluator oder null für das lineare Modell.
+     */
+    static BoardEvaluator fromProperty() {
+        String type = System.getProperty("santorini.evaluator", "linear");
+        switch (type.toLowerCase()) {
+            case "linear":
+                return null;
+            case "mlp":
+                return new MlpEvaluator();
+            case "ntuple":
+                return new NTupleEvaluator();
+            default:
+                throw new IllegalArgumentException("Unbekannte Bewertung: " + type);
+        }
+    }
+}
@@ -0,0 +1,489 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Endspieltabelle für zwei Spieler: exakter Ausgang (Gewinn/Verlust und Abstand in Plies) aller
+ * Stellungen mit höchstens K offenen (nicht überkuppelten) Feldern.
+ *
+ * Da jeder Zug ohne Sieg baut, ist der Spielgraph azyklisch: Nachfolger haben entweder dieselbe
+ * Menge offener Felder mit einer Stufe mehr oder ein offenes Feld weniger (Kuppel). Die Tabelle
+ * wird daher rückwärts erzeugt, von K = 4 (alle offenen Felder besetzt) aufwärts; innerhalb einer
+ * Feldmenge löst eine Tiefensuche mit der Tabelle selbst als Speicher jede Stellung genau einmal.
+ *
+ * Indexierung: die Menge offener Felder wird über die 8 Brettsymmetrien kanonisiert und per
+ * Kombinatorik-Rang direkt auf ihre Nummer abgebildet. Innerhalb einer Feldmenge bestimmen die
+ * Arbeiterpositionen, der Spieler am Zug, die Stufen unter den Arbeitern (0..2) und die Stufen der
+ * freien Felder (0..3) den Eintrag. Jeder Eintrag ist ein Byte: Bit 7 Gewinn für den Spieler am
+ * Zug, Bits 0..6 Abstand + 1 (0 = nicht berechnet).
+ *
+ * Die Erzeugung läuft parallel über die Feldmengen und ist fortsetzbar: fertige Feldmengen werden
+ * in einer Fortschrittsdatei neben der Tabelle vermerkt. Gelesen wird per Memory Mapping; Pfad über
+ * -Dsantorini.endgameTable (Standard endgame.bin).
+ *
+ * Erzeugen: java EndgameTable [K] [datei] [threads]
+ */
+public final class EndgameTable {
+    public static final String DEFAULT_FILE = "endgame.bin";
+    public static final int DEFAULT_MAX_OPEN = 5;
+    // alle vier Arbeiter stehen auf offenen Feldern
+    static final int MIN_OPEN = 2 * Board.MAX_WORKERS;
+
+    private static final int MAGIC = 0x53454731; // "SEG1"
+    private static final int HEADER_BYTES = 8;       // MAGIC, K
+    private static final int WIN_BIT = 0x80;
+    private static final int WORKER_LEVELS = 81; // 3^4: Arbeiter stehen auf Stufe 0..2
+
+    private static final int[][] BINOMIAL = new int[Board.NUM_SQUARES + 1][Board.NUM_SQUARES + 1];
+
+    static {
+        for (int n = 0; n <= Board.NUM_SQUARES; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int r = 1; r <= n; r++) BINOMIAL[n][r] = BINOMIAL[n - 1][r - 1] + BINOMIAL[n - 1][r];
+        }
+    }
+
+    /**
+     * Indexdaten aller Feldmengen mit genau k offenen Feldern.
+     */
+    private static final class Section {
+        final int k;
+        final int[] canonicalMasks;
+        final int[] idByRank;        // Rang der Feldmenge -> Nummer ihrer kanonischen Form
+        final byte[] transformByRank; // Symmetrie, die die Feldmenge kanonisch macht
+        final int[] placementId;     // [((a*k+b)*k+c)*k+d] mit a<b (Spieler 0), c<d (Spieler 1)
+        final int[][] placementCells;
+        final int freeStates;        // 4^(k-4)
+        final int entriesPerMask;
+        int offset;
+
+        Section(int k) {
+            this.k = k;
+            int masks = BINOMIAL[Board.NUM_SQUARES][k];
+            idByRank = new int[masks];
+            transformByRank = new byte[masks];
+            List<Integer> canonical = new ArrayList<>();
+            // Gosper-Iteration: aufsteigende Masken, deren Rang genau hochzählt
+            int mask = (1 << k) - 1;
+            for (int rank = 0; rank < masks; rank++) {
+                int best = mask;
+                int bestT = Symmetry.IDENTITY;
+                for (int t = 1; t < Symmetry.COUNT; t++) {
+                    int m = Symmetry.transformMask(t, mask);
+                    if (m < best) {
+                        best = m;
+                        bestT = t;
+                    }
+                }
+                if (best == mask) {
+                    idByRank[rank] = canonical.size();
+                    canonical.add(mask);
+                } else {
+                    idByRank[rank] = idByRank[rank(best)];
+                }
+                transformByRank[rank] = (byte) bestT;
+                int low = mask & -mask;
+                int ripple = mask + low;
+                mask = ripple | (((mask ^ ripple) >>> 2) / low);
+            }
+            canonicalMasks = canonical.stream().mapToInt(Integer::intValue).toArray();
+
+            placementId = new int[k * k * k * k];
+            List<int[]> cells = new ArrayList<>();
+            for (int a = 0; a < k; a++) {
+                for (int b = a + 1; b < k; b++) {
+                    for (int c = 0; c < k; c++) {
+                        for (int d = c + 1; d < k; d++) {
+                            if (c == a || c == b || d == a || d == b) continue;
+                            placementId[((a * k + b) * k + c) * k + d] = cells.size();
+                            cells.add(new int[]{a, b, c, d});
+                        }
+                    }
+                }
+            }
+            placementCells = cells.toArray(new int[0][]);
+            freeStates = 1 << (2 * (k - MIN_OPEN));
+            long entries = (long) placementCells.length * 2 * WORKER_LEVELS * freeStates;
+            if (entries * canonicalMasks.length > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Endspieltabelle für " + k + " offene Felder ist zu groß");
+            }
+            entriesPerMask = (int) entries;
+        }
+
+        int size() {
+            return canonicalMasks.length * entriesPerMask;
+        }
+    }
+
+    static int rank(int mask) {
+        int r = 0;
+        int j = 1;
+        while (mask != 0) {
+            r += BINOMIAL[Integer.numberOfTrailingZeros(mask)][j++];
+            mask &= mask - 1;
+        }
+        return r;
+    }
+
+    private final ByteBuffer data;
+    private final int maxOpen;
+    private final Section[] sections;
+
+    private EndgameTable(ByteBuffer data, int maxOpen) {
+        this.data = data;
+        this.maxOpen = maxOpen;
+        this.sections = new Section[maxOpen + 1];
+        int offset = HEADER_BYTES;
+        for (int k = MIN_OPEN; k <= maxOpen; k++) {
+            sections[k] = new Section(k);
+            sections[k].offset = offset;
+            offset += sections[k].size();
+        }
+    }
+
+    private static long fileSize(int maxOpen) {
+        long size = HEADER_BYTES;
+        for (int k = MIN_OPEN; k <= maxOpen; k++) size += new Section(k).size();
+        return size;
+    }
+
+    /**
+     * Bildet eine fertige Tabelle in den Speicher ab.
+     */
+    public static EndgameTable load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Keine gültige Endspieltabelle: " + file);
+            }
+            int maxOpen = buffer.getInt(4);
+            if (maxOpen < MIN_OPEN || maxOpen > Board.NUM_SQUARES || buffer.capacity() != fileSize(maxOpen)) {
+                throw new IOException("Endspieltabelle " + file + " ist unvollständig oder beschädigt");
+            }
+            return new EndgameTable(buffer, maxOpen);
+        }
+    }
+
+    private static final class DefaultHolder {
+        static final EndgameTable INSTANCE = loadDefault();
+
+        private static EndgameTable loadDefault() {
+            Path file = Paths.get(System.getProperty("santorini.endgameTable", DEFAULT_FILE));
+            if (!Files.isRegularFile(file)) return null;
+            try {
+                return load(file);
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Endspieltabelle " + file + " nicht lesbar: " + e.getMessage());
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Die Standardtabelle oder null, wenn keine Datei vorhanden ist (einmalig geladen).
+     */
+    public static EndgameTable getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    public int getMaxOpenCells() {
+        return maxOpen;
+    }
+
+    //  Abfrage
+
+    /**
+     * Eintrag für die Stellung aus Sicht des Spielers am Zug oder 0, wenn sie nicht abgedeckt ist
+     * (mehr als K offene Felder, nicht zwei Spieler mit je zwei Arbeitern, Spiel bereits gewonnen).
+     */
+    public int probe(Board board) {
+        return probe(board, new int[Board.NUM_SQUARES]);
+    }
+
+    /**
+     * Wie {@link #probe(Board)}, ohne Allokation: {@code scratch} nimmt die Stufen der 25 Felder auf.
+     */
+    public int probe(Board board, int[] scratch) {
+        int open = Board.FULL_MASK & ~board.getLevelMask(Board.MAX_LEVEL);
+        int k = Integer.bitCount(open);
+        if (k > maxOpen || board.getNumPlayers() != 2) return 0;
+        int w0 = board.getWorkerMask(0);
+        int w1 = board.getWorkerMask(1);
+        if (Integer.bitCount(w0) != 2 || Integer.bitCount(w1) != 2) return 0;
+        if (((w0 | w1) & board.getLevelMask(3)) != 0) return 0;
+
+        for (int sq = 0; sq < Board.NUM_SQUARES; sq++) scratch[sq] = board.levelAt(sq);
+        int position = locate(open, scratch,
+                Integer.numberOfTrailingZeros(w0), 31 - Integer.numberOfLeadingZeros(w0),
+                Integer.numberOfTrailingZeros(w1), 31 - Integer.numberOfLeadingZeros(w1),
+                board.getSideToMove());
+        return data.get(position) & 0xFF;
+    }
+
+    public static boolean isWin(int entry) {
+        return (entry & WIN_BIT) != 0;
+    }
+
+    /**
+     * Abstand bis zum Spielende in Plies.
+     */
+    public static int distance(int entry) {
+        return (entry & ~WIN_BIT) - 1;
+    }
+
+    /**
+     * Bewertung im Maßstab von {@link AlphaBetaSearch} für einen Knoten in Tiefe {@code ply}.
+     */
+    public static int toScore(int entry, int ply) {
+        int score = AlphaBetaSearch.WIN_SCORE - ply - distance(entry);
+        return isWin(entry) ? score : -score;
+    }
+
+    private static int encode(boolean win, int distance) {
+        return (win ? WIN_BIT : 0) | (distance + 1);
+    }
+
+    /**
+     * Byteposition einer Stellung; {@code level} enthält für jedes Feld die Stufe (Kuppel = 4).
+     */
+    private int locate(int open, int[] level, int p0a, int p0b, int p1a, int p1b, int side) {
+        Section s = sections[Integer.bitCount(open)];
+        int k = s.k;
+        int rank = rank(open);
+        int id = s.idByRank[rank];
+        int t = s.transformByRank[rank];
+        int canon = s.canonicalMasks[id];
+
+        int a = cellIndex(canon, Symmetry.map(t, p0a));
+        int b = cellIndex(canon, Symmetry.map(t, p0b));
+        int la = level[p0a];
+        int lb = level[p0b];
+        if (a > b) {
+            int tmp = a; a = b; b = tmp;
+            tmp = la; la = lb; lb = tmp;
+        }
+        int c = cellIndex(canon, Symmetry.map(t, p1a));
+        int d = cellIndex(canon, Symmetry.map(t, p1b));
+        int lc = level[p1a];
+        int ld = level[p1b];
+        if (c > d) {
+            int tmp = c; c = d; d = tmp;
+            tmp = lc; lc = ld; ld = tmp;
+        }
+        int placement = s.placementId[((a * k + b) * k + c) * k + d];
+        int workerLevels = ((la * 3 + lb) * 3 + lc) * 3 + ld;
+
+        int workerCells = (1 << cellSquare(canon, a)) | (1 << cellSquare(canon, b))
+                | (1 << cellSquare(canon, c)) | (1 << cellSquare(canon, d));
+        int inverse = Symmetry.inverse(t);
+        int free = canon & ~workerCells;
+        int freeLevels = 0;
+        while (free != 0) {
+            int sq = Integer.numberOfTrailingZeros(free);
+            freeLevels = freeLevels * 4 + level[Symmetry.map(inverse, sq)];
+            free &= free - 1;
+        }
+        int local = ((placement * 2 + side) * WORKER_LEVELS + workerLevels) * s.freeStates + freeLevels;
+        return s.offset + id * s.entriesPerMask + local;
+    }
+
+    private static int cellIndex(int mask, int square) {
+        return Integer.bitCount(mask & ((1 << square) - 1));
+    }
+
+    private static int cellSquare(int mask, int index) {
+        for (int i = 0; i < index; i++) mask &= mask - 1;
+        return Integer.numberOfTrailingZeros(mask);
+    }
+
+    //  Erzeugung
+
+    /**
+     * Löst alle Stellungen einer Feldmenge; jede Instanz gehört einem Thread.
+     */
+    private final class Solver {
+        private final int[] level = new int[Board.NUM_SQUARES];
+        private final int[] workers = new int[4];
+        private int open;
+
+        void solveMask(Section s, int id) {
+            int canon = s.canonicalMasks[id];
+            int[] cells = new int[s.k];
+            for (int i = 0, m = canon; i < s.k; i++, m &= m - 1) cells[i] = Integer.numberOfTrailingZeros(m);
+            int base = s.offset + id * s.entriesPerMask;
+
+            for (int local = 0; local < s.entriesPerMask; local++) {
+                if (data.get(base + local) != 0) continue;
+                int rest = local;
+                int freeLevels = rest % s.freeStates;
+                rest /= s.freeStates;
+                int workerLevels = rest % WORKER_LEVELS;
+                rest /= WORKER_LEVELS;
+                int side = rest & 1;
+                int[] placement = s.placementCells[rest >> 1];
+
+                open = canon;
+                Arrays.fill(level, Board.MAX_LEVEL);
+                int workerCells = 0;
+                for (int w = 3; w >= 0; w--) {
+                    workers[w] = cells[placement[w]];
+                    level[workers[w]] = workerLevels % 3;
+                    workerLevels /= 3;
+                    workerCells |= 1 << workers[w];
+                }
+                int free = canon & ~workerCells;
+                for (int i = s.k - 1; i >= 0; i--) {
+                    if ((free & (1 << cells[i])) == 0) continue;
+                    level[cells[i]] = freeLevels & 3;
+                    freeLevels >>= 2;
+                }
+                solve(side);
+            }
+        }
+
+        private int solve(int side) {
+            int position = locate(open, level, workers[0], workers[1], workers[2], workers[3], side);
+            int entry = data.get(position) & 0xFF;
+            if (entry != 0) return entry;
+
+            int occupied = (1 << workers[0]) | (1 << workers[1]) | (1 << workers[2]) | (1 << workers[3]);
+            int bestWin = Integer.MAX_VALUE;
+            int longestLoss = -1;
+            for (int w = side * 2; w < side * 2 + 2 && bestWin > 1; w++) {
+                int from = workers[w];
+                int targets = Board.neighbors(from) & open & ~occupied;
+                while (targets != 0) {
+                    int to = Integer.numberOfTrailingZeros(targets);
+                    targets &= targets - 1;
+                    if (level[to] > level[from] + 1) continue;
+                    if (level[to] == 3) {
+                        bestWin = 1;
+                        break;
+                    }
+                    workers[w] = to;
+                    int builds = Board.neighbors(to) & open & ~(occupied & ~(1 << from) | (1 << to));
+                    while (builds != 0) {
+                        int b = Integer.numberOfTrailingZeros(builds);
+                        builds &= builds - 1;
+                        if (++level[b] == Board.MAX_LEVEL) open &= ~(1 << b);
+                        int child = solve(1 - side);
+                        if (level[b]-- == Board.MAX_LEVEL) open |= 1 << b;
+                        if (isWin(child)) {
+                            longestLoss = Math.max(longestLoss, distance(child) + 1);
+                        } else {
+                            bestWin = Math.min(bestWin, distance(child) + 1);
+                        }
+                    }
+                    workers[w] = from;
+                }
+            }
+            entry = bestWin != Integer.MAX_VALUE ? encode(true, bestWin) : encode(false, Math.max(longestLoss, 0));
+            data.put(position, (byte) entry);
+            return entry;
+        }
+    }
+
+    /**
+     * Erzeugt (oder vervollständigt) die Tabelle für höchstens {@code maxOpen} offene Felder.
+     */
+    public static void generate(int maxOpen, Path file, int threads) throws IOException {
+        if (maxOpen < MIN_OPEN) throw new IllegalArgumentException("K muss mindestens " + MIN_OPEN + " sein: " + maxOpen);
+        long size = fileSize(maxOpen);
+        if (size > Integer.MAX_VALUE) throw new IllegalArgumentException("Endspieltabelle für K = " + maxOpen + " ist zu groß");
+        Path progressFile = Paths.get(file + ".progress");
+        Set<String> finished = new HashSet<>();
+        if (Files.exists(file) && Files.exists(progressFile)) {
+            finished.addAll(Files.readAllLines(progressFile, StandardCharsets.UTF_8));
+        } else {
+            Files.deleteIfExists(progressFile);
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw");
+             BufferedWriter progress = Files.newBufferedWriter(progressFile, StandardCharsets.UTF_8,
+                     StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (raf.length() != 0 && raf.length() != size) {
+                throw new IOException("Vorhandene Datei " + file + " passt nicht zu K = " + maxOpen);
+            }
+            raf.setLength(size);
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, maxOpen);
+            EndgameTable table = new EndgameTable(buffer, maxOpen);
+            ThreadLocal<Solver> solvers = ThreadLocal.withInitial(table::newSolver);
+
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            try {
+                for (int k = MIN_OPEN; k <= maxOpen; k++) {
+                    Section s = table.sections[k];
+                    long start = System.nanoTime();
+                    List<Future<String>> running = new ArrayList<>();
+                    for (int id = 0; id < s.canonicalMasks.length; id++) {
+                        String key = k + " " + id;
+                        if (finished.contains(key)) continue;
+                        int maskId = id;
+                        running.add(pool.submit(() -> {
+                            solvers.get().solveMask(s, maskId);
+                            return key;
+                        }));
+                    }
+                    // Fortschritt erst nach dem Rausschreiben der Daten vermerken
+                    List<String> done = new ArrayList<>();
+                    for (int i = 0; i < running.size(); i++) {
+                        done.add(running.get(i).get());
+                        if (done.size() == 256 || i == running.size() - 1) {
+                            buffer.force();
+                            for (String key : done) {
+                                progress.write(key);
+                                progress.newLine();
+                            }
+                            progress.flush();
+                            done.clear();
+                        }
+                    }
+                    System.out.println(String.format("K=%d: %,d Feldmengen, %,d Einträge (%d neu berechnet) in %.1fs",
+                            k, s.canonicalMasks.length, (long) s.size(), running.size(), (System.nanoTime() - start) / 1e9));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Erzeugung unterbrochen", e);
+            } catch (ExecutionException e) {
+                throw new IOException("Erzeugung fehlgeschlagen", e.getCause());
+            } finally {
+                pool.shutdownNow();
+            }
+            buffer.force();
+        }
+    }
+
+    private Solver newSolver() {
+        return new Solver();
+    }
+
+    /**
+     * Aufruf: java EndgameTable [K] [datei] [threads]
+     */
+    public static void main(String[] args) throws IOException {
+        int maxOpen = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MAX_OPEN;
+        Path file = Paths.get(args.length > 1 ? args[1] : DEFAULT_FILE);
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        generate(maxOpen, file, threads);
+        System.out.println("Geschrieben: " + file + " (" + Files.size(file) + " Bytes)");
+    }
+}
@@ -0,0 +1,138 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Parallele Alpha-Beta-Suche nach dem Lazy-SMP-Prinzip: alle Threads durchsuchen dieselbe
+ * Wurzel und teilen sich nur die sperrfreie {@link TranspositionTable}. Die Helfer suchen mit
+ * variierter Tiefe und Zugreihenfolge und füllen so die Tabelle; geliefert wird das Ergebnis des
+ * Hauptthreads, danach werden die Helfer gestoppt. Die Knotenzahl umfasst alle Threads.
+ *
+ * Aufruf (Skalierungsmessung):
+ *   java LazySmpSearch [tiefe] [maxThreads] [notation]
+ */
+public final class LazySmpSearch {
+    private final AlphaBetaSearch[] engines;
+    private final TranspositionTable table;
+    private ExecutorService helpers; // erst bei Bedarf angelegt
+
+    public LazySmpSearch(ReflexAgent evaluator, TranspositionTable table, int threads) {
+        if (threads < 1) throw new IllegalArgumentException("Mindestens ein Thread nötig: " + threads);
+        this.table = table;
+        this.engines = new AlphaBetaSearch[threads];
+        for (int i = 0; i < threads; i++) {
+            engines[i] = new AlphaBetaSearch(evaluator, table);
+        }
+    }
+
+    public int getThreads() {
+        return engines.length;
+    }
+
+    /**
+     * Sucht bis zur Deadline (System.nanoTime) oder bis {@code maxDepth} und liefert den besten
+     * Zug der letzten vom Hauptthread vollständig abgeschlossenen Tiefe.
+     */
+    AlphaBetaSearch.Result search(Board root, long deadlineNanos, int maxDepth) {
+        if (engines.length == 1) return engines[0].search(root, deadlineNanos, maxDepth);
+        return search(root, deadlineNanos, maxDepth, new AtomicBoolean());
+    }
+
+    /**
+     * Wie {@link #search(Board, long, int)}, bricht aber zusätzlich ab, sobald {@code stop} von
+     * außen gesetzt wird (z. B. beim Beenden des Ponderns).
+     */
+    AlphaBetaSearch.Result search(Board root, long deadlineNanos, int maxDepth, AtomicBoolean stop) {
+        table.newSearch();
+        if (engines.length == 1) return engines[0].search(root, deadlineNanos, maxDepth, 0, stop);
+
+        List<Future<AlphaBetaSearch.Result>> running = new ArrayList<>(engines.length - 1);
+        for (int i = 1; i < engines.length; i++) {
+            AlphaBetaSearch engine = engines[i];
+            int helperId = i;
+            running.add(helperPool().submit(() -> engine.search(root, deadlineNanos, maxDepth, helperId, stop)));
+        }
+
+        AlphaBetaSearch.Result main = engines[0].search(root, deadlineNanos, maxDepth, 0, stop);
+        stop.set(true);
+
+        long nodes = main.nodes;
+        for (Future<AlphaBetaSearch.Result> f : running) {
+            try {
+                nodes += f.get().nodes;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                System.err.println("LazySmpSearch: Helfer-Thread fehlgeschlagen: " + e.getCause());
+            }
+        }
+        return new AlphaBetaSearch.Result(main.move, main.score, main.depth, nodes, main.nanos, main.firstMoveCutoffRate);
+    }
+
+    /**
+     * Berichte über die Iterationen des Hauptthreads (null = aus), siehe
+     * {@link AlphaBetaSearch#setReporter}.
+     */
+    void setReporter(Consumer<SearchReport.Iteration> reporter) {
+        engines[0].setReporter(reporter);
+    }
+
+    private synchronized ExecutorService helperPool() {
+        if (helpers == null) {
+            helpers = Executors.newFixedThreadPool(engines.length - 1, r -> {
+                Thread t = new Thread(r, "santorini-search-helper");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return helpers;
+    }
+
+    /**
+     * Beendet die Helfer-Threads (eine laufende Suche wird nicht abgewartet).
+     */
+    public synchronized void shutdown() {
+        if (helpers != null) {
+            helpers.shutdownNow();
+            helpers = null;
+        }
+    }
+
+    /**
+     * Standard-Threadzahl: -Dsantorini.searchThreads oder alle verfügbaren Kerne.
+     */
+    public static int defaultThreads() {
+        return Math.max(1, Integer.getInteger("santorini.searchThreads", Runtime.getRuntime().availableProcessors()));
+    }
+
+    //  Kommandozeile: Skalierung messen
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        String notation = args.length > 2 ? String.join(" ", Arrays.copyOfRange(args, 2, args.length))
+                : Perft.REFERENCE_POSITIONS[0];
+        Board board = Board.fromNotation(notation);
+        ReflexAgent evaluator = new ReflexAgent(board.getPlayerId(board.getSideToMove()));
+
+        System.out.println("Stellung: " + board.toNotation() + ", Zieltiefe " + depth);
+        System.out.println(String.format("%8s %12s %16s %16s %9s", "Threads", "Zeit (s)", "Knoten", "Knoten/s", "Speedup"));
+        double baseSeconds = 0;
+        for (int threads = 1; threads <= maxThreads; threads = threads < maxThreads ? Math.min(threads * 2, maxThreads) : threads + 1) {
+            LazySmpSearch search = new LazySmpSearch(evaluator, new TranspositionTable(), threads);
+            AlphaBetaSearch.Result r = search.search(board, System.nanoTime() + 3_600_000_000_000L, depth);
+            search.shutdown();
+
+            double seconds = r.nanos / 1_000_000_000.0;
+            if (threads == 1) baseSeconds = seconds;
+            System.out.println(String.format("%8d %12.3f %,16d %,16.0f %8.2fx", threads, seconds, r.nodes,
+                    r.nodesPerSecond(), baseSeconds / seconds));
+        }
+    }
+}
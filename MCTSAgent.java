@@ -0,0 +1,161 @@
+// MCTSAgent.java
+// Extends SmartAgent: wählt Züge per Monte-Carlo-Baumsuche (UCT)
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Agent auf Basis von Monte-Carlo-Baumsuche (UCT) als Alternative zur linearen Zugbewertung.
+ * Der Baum liegt in einer Arena fester Größe ({@link MctsTree}); mehrere Threads suchen
+ * gleichzeitig im selben Baum. Gewählt wird der meistbesuchte Wurzelzug.
+ *
+ * Einstellungen (System-Properties):
+ *   santorini.mctsNodes    Knotenbudget der Arena (Standard 2^20)
+ *   santorini.mctsRollout  random (Standard) oder guided: Rolloutzüge teilweise nach der Utility des ReflexAgent
+ *   santorini.searchThreads Anzahl der Suchthreads (Standard: alle Kerne)
+ *
+ * Funktioniert für zwei und drei Spieler; die Features des gewählten Zuges werden wie beim
+ * ReflexAgent für das Lernen am Spielende gespeichert.
+ */
+public class MCTSAgent extends SmartAgent {
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 2000;
+    // Anteil der Utility-gesteuerten Rolloutzüge bei gelenkten Rollouts
+    private static final double GUIDED_GREEDY_RATE = 0.7;
+
+    private final MctsTree tree;
+    private final int threads;
+    private final boolean guided;
+    private long timeBudgetMillis = DEFAULT_TIME_BUDGET_MILLIS;
+    private ExecutorService helpers; // erst bei Bedarf angelegt
+    private String lastSummary;
+
+    public MCTSAgent(String playerId) {
+        this(playerId, Integer.getInteger("santorini.mctsNodes", MctsTree.DEFAULT_CAPACITY),
+                LazySmpSearch.defaultThreads(), "guided".equalsIgnoreCase(System.getProperty("santorini.mctsRollout")));
+    }
+
+    /**
+     * @param maxNodes Knotenbudget (Größe der Arena)
+     * @param threads  Anzahl paralleler Suchthreads
+     * @param guided   true für Utility-gelenkte statt zufälliger Rollouts
+     */
+    public MCTSAgent(String playerId, int maxNodes, int threads, boolean guided) {
+        super(playerId);
+        if (threads < 1) throw new IllegalArgumentException("Mindestens ein Thread nötig: " + threads);
+        this.tree = new MctsTree(maxNodes);
+        this.threads = threads;
+        this.guided = guided;
+    }
+
+    public void setTimeBudgetMillis(long millis) { this.timeBudgetMillis = millis; }
+    public long getTimeBudgetMillis() { return timeBudgetMillis; }
+
+    @Override
+    public MoveEvaluation chooseMove(Board board) {
+        return chooseMove(board, timeBudgetMillis);
+    }
+
+    @Override
+    public boolean usesThinkingTime() {
+        return true;
+    }
+
+    @Override
+    public String getSearchSummary() {
+        return lastSummary;
+    }
+
+    /**
+     * Sucht, bis das Zeitbudget abgelaufen oder das Knotenbudget erschöpft ist.
+     */
+    @Override
+    public MoveEvaluation chooseMove(Board board, long budgetMillis) {
+        int me = indexOn(board);
+        if (me < 0) {
+            lastSummary = null;
+            return super.chooseMove(board);
+        }
+        MoveEvaluation endgameMove = chooseEndgameMove(board);
+        if (endgameMove != null) {
+            lastSummary = "MCTS: Zug aus der Endspieltabelle";
+            return endgameMove;
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + budgetMillis * 1_000_000L;
+        MoveEvaluation provenMove = chooseProvenMove(board, budgetMillis);
+        if (provenMove != null) {
+            lastSummary = "MCTS: erzwungener Gewinn bewiesen (" + getLastProof() + ")";
+            return provenMove;
+        }
+        Board root = board.clone();
+        root.setSideToMove(me);
+        tree.reset(root);
+
+        // Gewinnzug oder einziger Zug: keine Suche nötig
+        int[] rootMoves = new int[Board.MAX_MOVES];
+        int count = root.generateMoves(me, rootMoves);
+        for (int i = 0; i < count; i++) {
+            if (Move.isWin(rootMoves[i])) {
+                rootMoves[0] = rootMoves[i];
+                count = 1;
+                break;
+            }
+        }
+        if (count <= 1) {
+            lastSummary = "MCTS: keine Suche nötig (" + count + " Zug)";
+            if (count == 0) return new MoveEvaluation(null, "Keine legalen Züge möglich. KI ist blockiert.");
+            Move move = Move.of(rootMoves[0]);
+            recordChosenMove(move, board);
+            return new MoveEvaluation(move, explainMove(move, board));
+        }
+
+        ReflexAgent policy = guided ? this : null;
+        AtomicBoolean stop = new AtomicBoolean();
+        List<Future<Long>> running = new ArrayList<>(threads - 1);
+        for (int i = 1; i < threads; i++) {
+            MctsTree.Worker worker = tree.new Worker(root, policy, GUIDED_GREEDY_RATE, start + i);
+            running.add(helperPool().submit(() -> worker.run(deadline, stop)));
+        }
+        long iterations = tree.new Worker(root, policy, GUIDED_GREEDY_RATE, start).run(deadline, stop);
+        stop.set(true);
+        for (Future<Long> f : running) {
+            try {
+                iterations += f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                System.err.println("MCTSAgent: Such-Thread fehlgeschlagen: " + e.getCause());
+            }
+        }
+        double seconds = Math.max(System.nanoTime() - start, 1) / 1_000_000_000.0;
+
+        int packed = tree.bestRootMove();
+        lastSummary = String.format("MCTS %,d Iterationen in %.2fs (%,.0f Iterationen/s), %,d Knoten%s, %d Threads, Gewinnrate %.1f%%",
+                iterations, seconds, iterations / seconds, tree.size(), tree.isFull() ? " (Budget erschöpft)" : "",
+                threads, tree.bestRootWinRate() * 100);
+        if (packed < 0) {
+            return new MoveEvaluation(null, "Keine legalen Züge möglich. KI ist blockiert.");
+        }
+
+        Move move = Move.of(packed);
+        recordChosenMove(move, board);
+        return new MoveEvaluation(move, explainMove(move, board) + " [MCTS] " + lastSummary);
+    }
+
+    private synchronized ExecutorService helperPool() {
+        if (helpers == null) {
+            helpers = Executors.newFixedThreadPool(threads - 1, r -> {
+                Thread t = new Thread(r, "santorini-mcts-helper");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return helpers;
+    }
+}
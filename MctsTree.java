@@ -0,0 +1,293 @@
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Suchbaum für MCTS/UCT in einer Arena aus parallelen primitiven Arrays: ein Knoten ist nur ein
+ * Index, seine Kinder liegen zusammenhängend ab {@code firstChild}. Es gibt keine Objekte pro
+ * Knoten; ein neuer Suchlauf setzt nur den Belegungszeiger zurück.
+ *
+ * Mehrere Threads können gleichzeitig im selben Baum suchen (Tree Parallelization): Besuche und
+ * Gewinne sind atomare Zähler, ein Knoten wird per CAS von genau einem Thread expandiert, und
+ * beim Abstieg erhält jeder Knoten einen virtuellen Verlust, damit parallele Threads
+ * unterschiedliche Pfade wählen.
+ *
+ * Gewinne zählen aus Sicht des Spielers, der den Zug in den Knoten gemacht hat; damit
+ * funktioniert der Baum für zwei und drei Spieler. Da jeder Nicht-Gewinnzug baut, endet jeder
+ * Rollout nach spätestens 4 * 25 Zügen.
+ */
+final class MctsTree {
+    static final int DEFAULT_CAPACITY = 1 << 20;
+    private static final double EXPLORATION = 1.4;
+    private static final int VIRTUAL_LOSS = 3;
+    // ein Blatt wird erst nach so vielen Besuchen expandiert (spart Arena-Knoten)
+    private static final int EXPAND_VISITS = 8;
+    // Abstiegstiefe + Rollout: jeder Zug ohne Sieg baut auf einem der 25 Felder (höchstens 4-mal)
+    private static final int MAX_GAME_PLIES = Board.NUM_SQUARES * Board.MAX_LEVEL + 1;
+
+    // Expansionszustand
+    private static final int UNEXPANDED = 0;
+    private static final int EXPANDING = 1;
+    private static final int EXPANDED = 2;
+
+    // Arena
+    private final int capacity;
+    private final int[] move;         // gepackter Zug in den Knoten
+    private final byte[] mover;       // Spieler, der diesen Zug gemacht hat
+    private final int[] firstChild;
+    private final short[] childCount;
+    private final AtomicIntegerArray visits;
+    private final AtomicIntegerArray wins;
+    private final AtomicIntegerArray state;
+    private final AtomicInteger nextFree = new AtomicInteger();
+    private volatile boolean full;
+
+    MctsTree(int capacity) {
+        this.capacity = capacity;
+        this.move = new int[capacity];
+        this.mover = new byte[capacity];
+        this.firstChild = new int[capacity];
+        this.childCount = new short[capacity];
+        this.visits = new AtomicIntegerArray(capacity);
+        this.wins = new AtomicIntegerArray(capacity);
+        this.state = new AtomicIntegerArray(capacity);
+    }
+
+    /**
+     * Leert den Baum; Knoten 0 wird die Wurzel für {@code root} (Spieler am Zug wie im Board).
+     */
+    void reset(Board root) {
+        int n = root.getNumPlayers();
+        initNode(0, -1, (root.getSideToMove() + n - 1) % n);
+        nextFree.set(1);
+        full = false;
+    }
+
+    private void initNode(int node, int packed, int player) {
+        move[node] = packed;
+        mover[node] = (byte) player;
+        firstChild[node] = 0;
+        childCount[node] = 0;
+        visits.set(node, 0);
+        wins.set(node, 0);
+        state.set(node, UNEXPANDED);
+    }
+
+    /**
+     * true, sobald eine Expansion nicht mehr in die Arena passte (Knotenbudget erschöpft).
+     */
+    boolean isFull() {
+        return full;
+    }
+
+    int size() {
+        return Math.min(nextFree.get(), capacity);
+    }
+
+    //  Auswertung der Wurzel
+
+    int rootVisits() {
+        return visits.get(0);
+    }
+
+    /**
+     * Meistbesuchter Wurzelzug (gepackt) oder -1, wenn die Wurzel keine Züge hat.
+     */
+    int bestRootMove() {
+        int child = bestRootChild();
+        return child < 0 ? -1 : move[child];
+    }
+
+    /**
+     * Gewinnrate des meistbesuchten Wurzelzuges aus Sicht des ziehenden Spielers.
+     */
+    double bestRootWinRate() {
+        int child = bestRootChild();
+        if (child < 0 || visits.get(child) == 0) return 0.0;
+        return (double) wins.get(child) / visits.get(child);
+    }
+
+    private int bestRootChild() {
+        if (state.get(0) != EXPANDED) return -1;
+        int best = -1;
+        int bestVisits = -1;
+        for (int c = firstChild[0], end = c + childCount[0]; c < end; c++) {
+            int v = visits.get(c);
+            if (v > bestVisits) {
+                bestVisits = v;
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    //  Suchthread
+
+    /**
+     * Zustand eines Suchthreads (eigenes Board, Puffer, Zufall). Nicht threadsicher teilbar.
+     */
+    final class Worker {
+        private final Board board;
+        private final ReflexAgent policy; // null = zufällige Rollouts
+        private final double greedyRate;
+        private final Random random;
+        private final int[] path = new int[MAX_GAME_PLIES + 1];
+        private final int[] moves = new int[Board.MAX_MOVES];
+        private final double[] features = new double[ReflexAgent.getNumWeights()];
+        private int rolloutWinner;
+
+        /**
+         * @param policy     Bewertung für gelenkte Rollouts oder null für zufällige Rollouts
+         * @param greedyRate Anteil der Rolloutzüge, die nach der Utility statt zufällig gewählt werden
+         */
+        Worker(Board root, ReflexAgent policy, double greedyRate, long seed) {
+            this.board = root.clone();
+            this.policy = policy;
+            this.greedyRate = greedyRate;
+            this.random = new Random(seed);
+        }
+
+        /**
+         * Führt Iterationen aus, bis die Deadline erreicht, {@code stop} gesetzt oder die Arena voll
+         * ist (mindestens eine Iteration). Liefert die Anzahl der Iterationen.
+         */
+        long run(long deadlineNanos, AtomicBoolean stop) {
+            long iterations = 0;
+            do {
+                iterate();
+                iterations++;
+            } while (System.nanoTime() < deadlineNanos && !stop.get() && !full);
+            return iterations;
+        }
+
+        private void iterate() {
+            int firstToken = -1;
+            int node = 0;
+            int length = 0;
+            path[length++] = 0;
+
+            // 1. Selektion
+            while (state.get(node) == EXPANDED && childCount[node] > 0) {
+                node = selectChild(node);
+                visits.addAndGet(node, VIRTUAL_LOSS);
+                int token = board.makeMove(move[node]);
+                if (firstToken < 0) firstToken = token;
+                path[length++] = node;
+            }
+
+            // 2. Expansion und 3. Simulation
+            int winner;
+            if (node != 0 && Move.isWin(move[node])) {
+                winner = mover[node];
+            } else {
+                if (state.get(node) == UNEXPANDED && !full && (node == 0 || visits.get(node) >= EXPAND_VISITS)
+                        && state.compareAndSet(node, UNEXPANDED, EXPANDING)) {
+                    expand(node);
+                }
+                if (state.get(node) == EXPANDED && childCount[node] == 0) {
+                    winner = mover[node]; // Spieler am Zug ist blockiert
+                } else {
+                    int token = rollout();
+                    if (firstToken < 0) firstToken = token;
+                    winner = rolloutWinner;
+                }
+            }
+            if (firstToken >= 0) board.unmakeMove(firstToken);
+
+            // 4. Rückpropagierung (virtuellen Verlust wieder abziehen)
+            visits.incrementAndGet(0);
+            if (mover[0] == winner) wins.incrementAndGet(0);
+            for (int i = 1; i < length; i++) {
+                int n = path[i];
+                visits.addAndGet(n, 1 - VIRTUAL_LOSS);
+                if (mover[n] == winner) wins.incrementAndGet(n);
+            }
+        }
+
+        private int selectChild(int node) {
+            int first = firstChild[node];
+            int end = first + childCount[node];
+            double logParent = Math.log(Math.max(1, visits.get(node)));
+            int best = first;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int c = first; c < end; c++) {
+                int v = visits.get(c);
+                if (v == 0) return c;
+                double value = (double) wins.get(c) / v + EXPLORATION * Math.sqrt(logParent / v);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = c;
+                }
+            }
+            return best;
+        }
+
+        private void expand(int node) {
+            int side = board.getSideToMove();
+            int count = board.generateMoves(side, moves);
+            // Gewinnzug vorhanden: nur diesen als Kind anlegen
+            for (int i = 0; i < count; i++) {
+                if (Move.isWin(moves[i])) {
+                    moves[0] = moves[i];
+                    count = 1;
+                    break;
+                }
+            }
+            int base = nextFree.getAndAdd(count);
+            if (base + count > capacity) {
+                full = true;
+                state.set(node, UNEXPANDED);
+                return;
+            }
+            for (int i = 0; i < count; i++) {
+                initNode(base + i, moves[i], side);
+            }
+            firstChild[node] = base;
+            childCount[node] = (short) count;
+            state.set(node, EXPANDED); // veröffentlicht die Kinder für andere Threads
+        }
+
+        /**
+         * Spielt bis zum Spielende und setzt {@link #rolloutWinner}; liefert das Undo-Token des
+         * ersten Rolloutzuges (oder -1, wenn die Stellung bereits entschieden war).
+         */
+        private int rollout() {
+            int firstToken = -1;
+            int players = board.getNumPlayers();
+            while (true) {
+                int side = board.getSideToMove();
+                int count = board.generateMoves(side, moves);
+                if (count == 0) {
+                    rolloutWinner = (side + players - 1) % players;
+                    return firstToken;
+                }
+                for (int i = 0; i < count; i++) {
+                    if (Move.isWin(moves[i])) {
+                        rolloutWinner = side;
+                        return firstToken;
+                    }
+                }
+                int token = board.makeMove(pickRolloutMove(count));
+                if (firstToken < 0) firstToken = token;
+            }
+        }
+
+        private int pickRolloutMove(int count) {
+            if (policy == null || random.nextDouble() >= greedyRate) {
+                return moves[random.nextInt(count)];
+            }
+            int best = moves[0];
+            double bestUtility = Double.NEGATIVE_INFINITY;
+            int threats = ReflexAgent.opponentWinningSteps(board, board.getSideToMove());
+            for (int i = 0; i < count; i++) {
+                double u = policy.moveUtility(board, moves[i], features, threats);
+                if (u > bestUtility) {
+                    bestUtility = u;
+                    best = moves[i];
+                }
+            }
+            return best;
+        }
+    }
+}
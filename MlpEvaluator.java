@@ -0,0 +1,344 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Kleines mehrschichtiges Perzeptron als Stellungsbewertung (siehe {@link BoardEvaluator}).
+ *
+ * Eingabe sind binäre Ebenen zu je 25 Feldern aus Sicht des bewerteten Spielers: Höhe 0..3,
+ * Kuppel, eigene Arbeiter, gegnerische Arbeiter. Bewertet werden nur Stellungen nach dem Zug
+ * dieses Spielers (siehe {@link BoardEvaluator#evaluate}), ein Bit für den Spieler am Zug entfällt
+ * daher. Da höchstens 31 Eingaben gesetzt sind, summiert die erste Schicht nur die Zeilen der
+ * aktiven Eingaben.
+ * Danach zwei ReLU-Schichten und ein tanh-Ausgang.
+ *
+ * Alle Gewichte liegen in flachen float-Arrays; Vorwärts- und Rückwärtsdurchlauf arbeiten auf
+ * vorab angelegten Puffern (einer pro Thread) ohne Allokation. Trainiert wird am Spielende per
+ * stochastischem Gradientenabstieg auf das Spielergebnis (quadratischer Fehler).
+ *
+ * Aufruf (Benchmark gegen das lineare Modell; --check prüft die Suchblätter nach dem Training):
+ *   java MlpEvaluator [stellungen] [sekunden]
+ *   java MlpEvaluator --check
+ */
+public final class MlpEvaluator implements BoardEvaluator {
+    private static final int PLANE_OWN = Board.MAX_LEVEL + 1;    // Ebenen 0..4: Höhe bzw. Kuppel
+    private static final int PLANE_OPPONENT = PLANE_OWN + 1;
+    static final int INPUTS = (PLANE_OPPONENT + 1) * Board.NUM_SQUARES;
+    private static final int MAX_ACTIVE = Board.NUM_SQUARES + 2 * 3;
+    static final int HIDDEN1 = 64;
+    static final int HIDDEN2 = 32;
+
+    private static final int MAGIC = 0x534D4C50; // "SMLP"
+    private static final float LEARNING_RATE = 0.005f;
+
+    // w1[input * HIDDEN1 + h], w2[h1 * HIDDEN2 + h2], w3[h2]
+    private final float[] w1 = new float[INPUTS * HIDDEN1];
+    private final float[] b1 = new float[HIDDEN1];
+    private final float[] w2 = new float[HIDDEN1 * HIDDEN2];
+    private final float[] b2 = new float[HIDDEN2];
+    private final float[] w3 = new float[HIDDEN2];
+    private float b3;
+
+    private final List<int[]> history = new ArrayList<>(); // aktive Eingaben der gemerkten Stellungen
+
+    // Puffer für Vorwärts- und Rückwärtsdurchlauf, einer pro Thread
+    private static final class Scratch {
+        final int[] active = new int[MAX_ACTIVE];
+        final float[] a1 = new float[HIDDEN1];
+        final float[] a2 = new float[HIDDEN2];
+        final float[] d1 = new float[HIDDEN1];
+        final float[] d2 = new float[HIDDEN2];
+    }
+
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    public MlpEvaluator(long seed) {
+        // He-Initialisierung für die ReLU-Schichten
+        Random random = new Random(seed);
+        float scale1 = (float) Math.sqrt(2.0 / MAX_ACTIVE);
+        for (int i = 0; i < w1.length; i++) w1[i] = (float) random.nextGaussian() * scale1;
+        float scale2 = (float) Math.sqrt(2.0 / HIDDEN1);
+        for (int i = 0; i < w2.length; i++) w2[i] = (float) random.nextGaussian() * scale2;
+        float scale3 = (float) Math.sqrt(1.0 / HIDDEN2);
+        for (int i = 0; i < w3.length; i++) w3[i] = (float) random.nextGaussian() * scale3;
+    }
+
+    public MlpEvaluator() {
+        this(42);
+    }
+
+    @Override
+    public String getName() {
+        return "mlp";
+    }
+
+    /**
+     * Schreibt die Indizes der gesetzten Eingaben nach {@code active} und liefert ihre Anzahl.
+     */
+    static int encode(Board board, int playerIndex, int[] active) {
+        int n = 0;
+        for (int sq = 0; sq < Board.NUM_SQUARES; sq++) {
+            active[n++] = board.levelAt(sq) * Board.NUM_SQUARES + sq;
+        }
+        for (int p = 0; p < board.getNumPlayers(); p++) {
+            int plane = p == playerIndex ? PLANE_OWN : PLANE_OPPONENT;
+            int workers = board.getWorkerMask(p);
+            while (workers != 0) {
+                active[n++] = plane * Board.NUM_SQUARES + Integer.numberOfTrailingZeros(workers);
+                workers &= workers - 1;
+            }
+        }
+        return n;
+    }
+
+    @Override
+    public double evaluate(Board board, int playerIndex) {
+        Scratch s = scratch.get();
+        int count = encode(board, playerIndex, s.active);
+        return forward(s, s.active, count);
+    }
+
+    // Vorwärtsdurchlauf; Aktivierungen bleiben für den Rückwärtsdurchlauf in s
+    private float forward(Scratch s, int[] active, int count) {
+        float[] a1 = s.a1;
+        System.arraycopy(b1, 0, a1, 0, HIDDEN1);
+        for (int k = 0; k < count; k++) {
+            int row = active[k] * HIDDEN1;
+            for (int h = 0; h < HIDDEN1; h++) a1[h] += w1[row + h];
+        }
+        for (int h = 0; h < HIDDEN1; h++) a1[h] = Math.max(a1[h], 0f);
+
+        float[] a2 = s.a2;
+        System.arraycopy(b2, 0, a2, 0, HIDDEN2);
+        for (int i = 0; i < HIDDEN1; i++) {
+            float x = a1[i];
+            if (x == 0f) continue; // inaktive ReLU
+            int row = i * HIDDEN2;
+            for (int j = 0; j < HIDDEN2; j++) a2[j] += x * w2[row + j];
+        }
+        float z = b3;
+        for (int j = 0; j < HIDDEN2; j++) {
+            a2[j] = Math.max(a2[j], 0f);
+            z += a2[j] * w3[j];
+        }
+        return (float) Math.tanh(z);
+    }
+
+    // ein SGD-Schritt auf (v - target)^2 / 2
+    private void train(Scratch s, int[] active, int count, float target) {
+        float v = forward(s, active, count);
+        float dz = (v - target) * (1 - v * v) * LEARNING_RATE;
+
+        float[] a1 = s.a1, a2 = s.a2, d1 = s.d1, d2 = s.d2;
+        for (int j = 0; j < HIDDEN2; j++) {
+            d2[j] = a2[j] > 0f ? dz * w3[j] : 0f;
+            w3[j] -= dz * a2[j];
+        }
+        b3 -= dz;
+
+        for (int i = 0; i < HIDDEN1; i++) {
+            int row = i * HIDDEN2;
+            float x = a1[i];
+            float g = 0f;
+            for (int j = 0; j < HIDDEN2; j++) {
+                g += d2[j] * w2[row + j];
+                w2[row + j] -= d2[j] * x;
+            }
+            d1[i] = x > 0f ? g : 0f;
+        }
+        for (int j = 0; j < HIDDEN2; j++) b2[j] -= d2[j];
+
+        for (int k = 0; k < count; k++) {
+            int row = active[k] * HIDDEN1;
+            for (int h = 0; h < HIDDEN1; h++) w1[row + h] -= d1[h];
+        }
+        for (int h = 0; h < HIDDEN1; h++) b1[h] -= d1[h];
+    }
+
+    @Override
+    public synchronized void recordPosition(Board board, int playerIndex) {
+        int[] active = new int[MAX_ACTIVE];
+        int count = encode(board, playerIndex, active);
+        int[] stored = new int[count];
+        System.arraycopy(active, 0, stored, 0, count);
+        history.add(stored);
+    }
+
+    @Override
+    public synchronized void learn(double reward) {
+        Scratch s = scratch.get();
+        float target = (float) Math.max(-1.0, Math.min(1.0, reward));
+        for (int[] active : history) {
+            train(s, active, active.length, target);
+        }
+        history.clear();
+    }
+
+    //  Speichern / Laden: Kennung, Schichtgrößen, dann alle Gewichte als float
+
+    @Override
+    public synchronized void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(INPUTS);
+            out.writeInt(HIDDEN1);
+            out.writeInt(HIDDEN2);
+            for (float[] layer : new float[][]{w1, b1, w2, b2, w3}) {
+                for (float x : layer) out.writeFloat(x);
+            }
+            out.writeFloat(b3);
+        }
+    }
+
+    @Override
+    public synchronized void load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != INPUTS || in.readInt() != HIDDEN1 || in.readInt() != HIDDEN2) {
+                throw new IOException("Falsches Format oder andere Netzgröße: " + file);
+            }
+            for (float[] layer : new float[][]{w1, b1, w2, b2, w3}) {
+                for (int i = 0; i < layer.length; i++) layer[i] = in.readFloat();
+            }
+            b3 = in.readFloat();
+        }
+    }
+
+    //  Benchmark
+
+    /**
+     * Spieler, der in {@code board} zuletzt gezogen hat; aus seiner Sicht ist die Stellung
+     * eine Stellung nach dem eigenen Zug (siehe {@link BoardEvaluator#evaluate}).
+     */
+    static int previousMover(Board board) {
+        return (board.getSideToMove() + board.getNumPlayers() - 1) % board.getNumPlayers();
+    }
+
+    /**
+     * Stellungen aus Zufallspartien ab den Zwei-Spieler-Referenzstellungen.
+     */
+    static List<Board> samplePositions(int count, long seed) {
+        Random random = new Random(seed);
+        List<Board> positions = new ArrayList<>(count);
+        int[] moves = new int[Board.MAX_MOVES];
+        while (positions.size() < count) {
+            for (String notation : Perft.REFERENCE_POSITIONS) {
+                Board board = Board.fromNotation(notation);
+                if (board.getNumPlayers() != 2) continue;
+                while (positions.size() < count) {
+                    int n = board.generateMoves(board.getSideToMove(), moves);
+                    if (n == 0) break;
+                    int move = moves[random.nextInt(n)];
+                    if (Move.isWin(move)) break;
+                    board.makeMove(move);
+                    positions.add(board.clone());
+                }
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Prüft, dass eine trainierte Bewertung in der Alpha-Beta-Suche ankommt: trainiert
+     * {@code evaluator} auf {@code games} Zufallspartien so, wie der ReflexAgent es tut (Stellungen
+     * nach den Zügen von P1, am Ende das Ergebnis), und sucht dann mit Tiefe 1 in Stellungen mit P1
+     * am Zug. Die Wurzelwerte nicht entschiedener Stellungen sind genau die Blattwerte; mindestens
+     * die Hälfte davon muss ungleich 0 sein.
+     */
+    static boolean verifySearchLeaves(BoardEvaluator evaluator, int games) {
+        Random random = new Random(7);
+        int[] moves = new int[Board.MAX_MOVES];
+        for (int g = 0; g < games; g++) {
+            Board board = Board.fromNotation(Perft.REFERENCE_POSITIONS[0]);
+            double reward = 0;
+            while (true) {
+                int side = board.getSideToMove();
+                int n = board.generateMoves(side, moves);
+                if (n == 0) { // blockiert: der Spieler am Zug verliert
+                    reward = side == 0 ? -1 : 1;
+                    break;
+                }
+                int move = moves[random.nextInt(n)];
+                if (Move.isWin(move)) {
+                    reward = side == 0 ? 1 : -1;
+                    break;
+                }
+                board.makeMove(move);
+                if (side == 0) evaluator.recordPosition(board, 0);
+            }
+            evaluator.learn(reward);
+        }
+
+        ReflexAgent agent = new ReflexAgent("P1", evaluator);
+        AlphaBetaSearch search = new AlphaBetaSearch(agent, new TranspositionTable());
+        int undecided = 0;
+        int nonZero = 0;
+        for (Board board : samplePositions(200, 3)) {
+            if (board.getSideToMove() != 0) continue;
+            AlphaBetaSearch.Result result = search.search(board, System.nanoTime() + 60_000_000_000L, 1);
+            if (result.move < 0 || Math.abs(result.score) >= AlphaBetaSearch.WIN_THRESHOLD) continue;
+            undecided++;
+            if (result.score != 0) nonZero++;
+        }
+        boolean ok = undecided > 0 && 2 * nonZero >= undecided;
+        System.out.println(String.format("%s: %d von %d Suchwerten nach %d Trainingspartien ungleich 0 - %s",
+                evaluator.getName(), nonZero, undecided, games, ok ? "korrekt" : "FEHLER"));
+        return ok;
+    }
+
+    /**
+     * Aufruf: java MlpEvaluator [stellungen] [sekunden] — Bewertungen/s von MLP und linearem Modell;
+     * java MlpEvaluator --check — siehe {@link #verifySearchLeaves}.
+     */
+    public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--check")) {
+            System.exit(verifySearchLeaves(new MlpEvaluator(), 2000) ? 0 : 1);
+        }
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 2.0;
+        List<Board> positions = samplePositions(count, 1);
+        MlpEvaluator mlp = new MlpEvaluator();
+        ReflexAgent linear = new ReflexAgent("P1");
+
+        System.out.println(String.format("%d Stellungen, Netz %d-%d-%d-1 (%,d Gewichte)", positions.size(),
+                INPUTS, HIDDEN1, HIDDEN2, INPUTS * HIDDEN1 + HIDDEN1 * HIDDEN2 + HIDDEN2 + HIDDEN1 + HIDDEN2 + 1));
+        for (int round = 0; round < 2; round++) { // erste Runde zum Aufwärmen des JIT
+            double sink = 0;
+            long evals = 0;
+            long start = System.nanoTime();
+            long end = start + (long) (seconds * 1e9);
+            while (System.nanoTime() < end) {
+                for (Board b : positions) sink += linear.evaluateBoard(b, previousMover(b));
+                evals += positions.size();
+            }
+            double linearRate = evals / ((System.nanoTime() - start) / 1e9);
+
+            evals = 0;
+            start = System.nanoTime();
+            end = start + (long) (seconds * 1e9);
+            while (System.nanoTime() < end) {
+                for (Board b : positions) sink += mlp.evaluate(b, previousMover(b));
+                evals += positions.size();
+            }
+            double mlpRate = evals / ((System.nanoTime() - start) / 1e9);
+
+            if (round == 1) {
+                System.out.println(String.format("Linear: %,.0f Bewertungen/s", linearRate));
+                System.out.println(String.format("MLP:    %,.0f Bewertungen/s (Faktor %.1f langsamer)%s", mlpRate,
+                        linearRate / mlpRate, sink == 42 ? " " : ""));
+            }
+        }
+
+        long start = System.nanoTime();
+        for (Board b : positions) mlp.recordPosition(b, previousMover(b));
+        mlp.learn(1.0);
+        System.out.println(String.format("Training: %,.0f Stellungen/s",
+                positions.size() / ((System.nanoTime() - start) / 1e9)));
+    }
+}
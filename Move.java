@@ -1,55 +1,160 @@
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Objects;
+import java.util.List;
 
 /**
  * Repräsentiert einen vollständigen Zug (Bewegen und optional Bauen).
+ *
+ * Für Zuggeneratoren ohne Allokation gibt es zusätzlich eine gepackte int-Darstellung:
+ * Bits 0-4 Startfeld, 5-9 Zielfeld, 10-14 Baufeld (NO_SQUARE bei Gewinnzug), Bit 15 Gewinn-Flag.
+ * Feldindizes wie in {@link Board#square(int, int)}.
+ *
+ * Alle auf einem 5x5-Feld möglichen Zugformen (Ziel neben Start, Baufeld neben Ziel) werden
+ * einmalig in einer unveränderlichen Tabelle angelegt und über eine kleine Id adressiert.
+ * Moves aus {@link #of} sind interniert: gleiche Züge sind dasselbe Objekt, hashCode ist die Id,
+ * und die Id kann direkt als Array-Index (z.B. History-Tabellen) verwendet werden.
  */
-public class Move {
+public final class Move {
+    public static final int NO_SQUARE = 31;
+    public static final int WIN_FLAG = 1 << 15;
+
+    private static final int PACKED_MASK = WIN_FLAG - 1;
+
+    private static final Move[] BY_ID;
+    private static final short[] ID_BY_PACKED = new short[WIN_FLAG];
+    public static final int MOVE_COUNT;
+
+    static {
+        Arrays.fill(ID_BY_PACKED, (short) -1);
+        List<Move> table = new ArrayList<>();
+        for (int from = 0; from < Board.NUM_SQUARES; from++) {
+            for (int to : Board.neighborSquares(from)) {
+                table.add(new Move(table.size(), pack(from, to, NO_SQUARE)));
+                for (int build : Board.neighborSquares(to)) {
+                    table.add(new Move(table.size(), pack(from, to, build)));
+                }
+            }
+        }
+        BY_ID = table.toArray(new Move[0]);
+        MOVE_COUNT = BY_ID.length;
+        for (Move m : BY_ID) {
+            ID_BY_PACKED[m.packed & PACKED_MASK] = (short) m.id;
+        }
+    }
+
+    private final int id;       // Tabellen-Id oder -1 für nicht internierte Formen
+    private final int packed;
     private final int[] moveFrom;
     private final int[] moveTo;
     private final int[] buildAt; // null, wenn es ein Gewinnzug ist
 
+    private Move(int id, int packed) {
+        this.id = id;
+        this.packed = packed;
+        this.moveFrom = Board.coordOf(fromSquare(packed));
+        this.moveTo = Board.coordOf(toSquare(packed));
+        this.buildAt = isWin(packed) ? null : Board.coordOf(buildSquare(packed));
+    }
+
+    /**
+     * Zug aus der gepackten Darstellung (Tabellenzugriff, keine Allokation für legale Formen).
+     */
+    public static Move of(int packed) {
+        int id = ID_BY_PACKED[packed & PACKED_MASK];
+        return id >= 0 ? BY_ID[id] : new Move(-1, packed);
+    }
+
     /**
-     * Konstruktor für einen Standardzug (Bewegen und Bauen).
+     * Zug für einen Standardzug (Bewegen und Bauen).
      * @param moveFrom Startkoordinate.
      * @param moveTo Zielkoordinate der Bewegung.
-     * @param buildAt Zielkoordinate des Baus.
+     * @param buildAt Zielkoordinate des Baus oder null für einen Gewinnzug.
      */
-    public Move(int[] moveFrom, int[] moveTo, int[] buildAt) {
-        this.moveFrom = moveFrom;
-        this.moveTo = moveTo;
-        this.buildAt = buildAt;
+    public static Move of(int[] moveFrom, int[] moveTo, int[] buildAt) {
+        int build = buildAt == null ? NO_SQUARE : toSquare(buildAt);
+        return of(pack(toSquare(moveFrom), toSquare(moveTo), build));
     }
 
     /**
-     * Konstruktor für einen Gewinnzug (Bewegen ohne Bauen).
+     * Zug für einen Gewinnzug (Bewegen ohne Bauen).
      * @param moveFrom Startkoordinate.
      * @param moveTo Zielkoordinate der Bewegung.
      */
-    public Move(int[] moveFrom, int[] moveTo) {
-        this(moveFrom, moveTo, null);
+    public static Move of(int[] moveFrom, int[] moveTo) {
+        return of(moveFrom, moveTo, null);
     }
 
-    // Getter
+    public static Move byId(int id) {
+        return BY_ID[id];
+    }
+
+    /**
+     * Tabellen-Id eines gepackten Zuges oder -1, falls die Form auf dem Feld nicht möglich ist.
+     */
+    public static int idOf(int packed) {
+        return ID_BY_PACKED[packed & PACKED_MASK];
+    }
+
+    private static int toSquare(int[] coord) {
+        if (coord == null || coord[0] < 0 || coord[0] >= Board.BOARD_SIZE || coord[1] < 0 || coord[1] >= Board.BOARD_SIZE) {
+            throw new IllegalArgumentException("Koordinate außerhalb des Spielfelds");
+        }
+        return Board.square(coord[0], coord[1]);
+    }
+
+    // Getter (geteilte Koordinaten-Arrays, nicht verändern)
     public int[] getMoveFrom() { return moveFrom; }
     public int[] getMoveTo() { return moveTo; }
     public int[] getBuildAt() { return buildAt; }
+    public int getId() { return id; }
+
+    //  Gepackte Darstellung
+
+    /**
+     * Packt einen Zug in ein int. {@code build == NO_SQUARE} kennzeichnet einen Gewinnzug.
+     */
+    public static int pack(int from, int to, int build) {
+        int packed = from | (to << 5) | (build << 10);
+        return build == NO_SQUARE ? packed | WIN_FLAG : packed;
+    }
+
+    public static int fromSquare(int packed) { return packed & 31; }
+    public static int toSquare(int packed) { return (packed >>> 5) & 31; }
+    public static int buildSquare(int packed) { return (packed >>> 10) & 31; }
+    public static boolean isWin(int packed) { return (packed & WIN_FLAG) != 0; }
+
+    /**
+     * Kurznotation eines gepackten Zuges, z.B. "b2-c3/c4" (Gewinnzug ohne Bau: "b2-c3").
+     */
+    public static String toNotation(int packed) {
+        String text = squareName(fromSquare(packed)) + "-" + squareName(toSquare(packed));
+        return isWin(packed) ? text : text + "/" + squareName(buildSquare(packed));
+    }
+
+    private static String squareName(int square) {
+        return "" + (char) ('a' + Board.colOf(square)) + (Board.rowOf(square) + 1);
+    }
+
+    /**
+     * Gepackte Darstellung dieses Zuges.
+     */
+    public int toPacked() {
+        return packed;
+    }
 
     /**
-     * Wichtig für Set-Operationen oder das Vergleichen von Zügen.
+     * Internierte Züge werden über ihre Identität verglichen; nur nicht internierte
+     * (auf dem Feld unmögliche) Formen fallen auf den Vergleich der gepackten Werte zurück.
      */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        Move move = (Move) o;
-        return Arrays.equals(moveFrom, move.moveFrom) &&
-                Arrays.equals(moveTo, move.moveTo) &&
-                Arrays.equals(buildAt, move.buildAt);
+        if (id >= 0 || !(o instanceof Move)) return false;
+        return packed == ((Move) o).packed;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(Arrays.hashCode(moveFrom), Arrays.hashCode(moveTo), Arrays.hashCode(buildAt));
+        return id >= 0 ? id : packed;
     }
-}
\ No newline at end of file
+}
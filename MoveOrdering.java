@@ -0,0 +1,163 @@
+import java.util.Arrays;
+
+/**
+ * Zugsortierung für die Alpha-Beta-Suche, vollständig auf primitiven Arrays:
+ *
+ *   1. Hash-Zug aus der Transpositionstabelle
+ *   2. taktische Züge, die einen Gewinnschritt eines Gegners verhindern (Kuppel auf sein
+ *      Level-3-Gewinnfeld bauen); Gewinnzüge selbst beenden die Suche schon vor der Sortierung
+ *   3. zwei Killer-Züge pro Ply
+ *   4. History-Heuristik, indiziert über [Spieler][Move-Id]
+ *
+ * Die Züge werden nicht vollständig sortiert, sondern mit {@link #pickNext} schrittweise
+ * ausgewählt; nach einem frühen Schnitt bleibt der Rest unsortiert. Zusätzlich wird gezählt,
+ * wie oft ein Beta-Schnitt bereits beim ersten Zug eintritt (Maß für die Sortierqualität).
+ * Jede Instanz gehört genau einem Suchthread.
+ */
+final class MoveOrdering {
+    private static final int HASH_SCORE = 1 << 30;
+    private static final int BLOCK_SCORE = 1 << 29;
+    private static final int KILLER_SCORE = 1 << 28;
+    private static final int HISTORY_LIMIT = 1 << 26;
+
+    private final boolean heuristics;
+    private final int[][] killers = new int[AlphaBetaSearch.MAX_PLY + 1][2];
+    private final int[][] history = new int[Board.MAX_PLAYERS][Move.MOVE_COUNT];
+    private final int[][] scores = new int[AlphaBetaSearch.MAX_PLY + 1][Board.MAX_MOVES];
+
+    private long cutNodes;
+    private long firstMoveCuts;
+
+    /**
+     * @param heuristics false: nur Hash-Zug zuerst, sonst Generator-Reihenfolge (zum Vergleich)
+     */
+    MoveOrdering(boolean heuristics) {
+        this.heuristics = heuristics;
+    }
+
+    MoveOrdering() {
+        this(true);
+    }
+
+    /**
+     * Vor jeder neuen Suche: Killer löschen, History halbieren (ältere Erfahrungen verblassen).
+     */
+    void newSearch() {
+        for (int[] k : killers) Arrays.fill(k, -1);
+        for (int[] h : history) {
+            for (int i = 0; i < h.length; i++) h[i] >>= 1;
+        }
+        cutNodes = 0;
+        firstMoveCuts = 0;
+    }
+
+    /**
+     * Bewertet alle Züge eines Knotens für die spätere Auswahl mit {@link #pickNext}.
+     */
+    void scoreMoves(Board board, int side, int[] moves, int count, int ply, int hashMove) {
+        int[] s = scores[ply];
+        if (!heuristics) {
+            for (int i = 0; i < count; i++) s[i] = moves[i] == hashMove ? HASH_SCORE : 0;
+            return;
+        }
+
+        int threats = ReflexAgent.opponentWinningSteps(board, side);
+        int killer0 = killers[ply][0];
+        int killer1 = killers[ply][1];
+        int[] h = history[side];
+
+        for (int i = 0; i < count; i++) {
+            int m = moves[i];
+            int score;
+            if (m == hashMove) {
+                score = HASH_SCORE;
+            } else if (threats != 0 && blocksThreat(m, threats)) {
+                score = BLOCK_SCORE;
+            } else if (m == killer0) {
+                score = KILLER_SCORE + 1;
+            } else if (m == killer1) {
+                score = KILLER_SCORE;
+            } else {
+                score = h[Move.idOf(m)];
+            }
+            s[i] = score;
+        }
+    }
+
+    // Bau auf einem freien Level-3-Gewinnfeld setzt dort eine Kuppel (betreten hieße selbst gewinnen)
+    private static boolean blocksThreat(int move, int threats) {
+        return !Move.isWin(move) && (threats & (1 << Move.buildSquare(move))) != 0;
+    }
+
+    /**
+     * Bringt den besten noch nicht gespielten Zug an Position {@code index}.
+     */
+    void pickNext(int[] moves, int count, int ply, int index) {
+        int[] s = scores[ply];
+        int best = index;
+        for (int i = index + 1; i < count; i++) {
+            if (s[i] > s[best]) best = i;
+        }
+        if (best != index) {
+            int m = moves[best];
+            moves[best] = moves[index];
+            moves[index] = m;
+            int sc = s[best];
+            s[best] = s[index];
+            s[index] = sc;
+        }
+    }
+
+    /**
+     * Beta-Schnitt durch {@code move} als {@code index}-ten Zug: Killer und History aktualisieren.
+     */
+    void recordCutoff(int side, int move, int ply, int depth, int index) {
+        cutNodes++;
+        if (index == 0) firstMoveCuts++;
+
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] h = history[side];
+        int id = Move.idOf(move);
+        h[id] += depth * depth;
+        if (h[id] > HISTORY_LIMIT) {
+            for (int[] row : history) {
+                for (int i = 0; i < row.length; i++) row[i] >>= 1;
+            }
+        }
+    }
+
+    long getCutNodes() {
+        return cutNodes;
+    }
+
+    /**
+     * Anteil der Beta-Schnitte, die schon beim ersten Zug eintraten (0..1).
+     */
+    double getFirstMoveCutoffRate() {
+        return cutNodes == 0 ? 0.0 : (double) firstMoveCuts / cutNodes;
+    }
+
+    //  Kommandozeile: Sortierqualität auf den Referenzstellungen
+
+    /**
+     * Aufruf: java MoveOrdering [tiefe] — vergleicht feste Tiefe mit und ohne Heuristiken.
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        System.out.println(String.format("%-48s %-10s %14s %10s %12s", "Stellung", "Sortierung", "Knoten", "Zeit (s)", "Erstzug-Schnitt"));
+        for (String notation : Perft.REFERENCE_POSITIONS) {
+            Board board = Board.fromNotation(notation);
+            if (board.getNumPlayers() != 2) continue;
+            ReflexAgent evaluator = new ReflexAgent(board.getPlayerId(board.getSideToMove()));
+            for (boolean heuristics : new boolean[]{false, true}) {
+                AlphaBetaSearch search = new AlphaBetaSearch(evaluator, new TranspositionTable(), new MoveOrdering(heuristics));
+                AlphaBetaSearch.Result r = search.search(board, System.nanoTime() + 3_600_000_000_000L, depth);
+                System.out.println(String.format("%-48s %-10s %,14d %10.3f %11.1f%%", notation,
+                        heuristics ? "voll" : "nur Hash", r.nodes, r.nanos / 1_000_000_000.0, r.firstMoveCutoffRate * 100));
+            }
+        }
+    }
+}
@@ -0,0 +1,240 @@
+import java.util.Arrays;
+
+/**
+ * Suche für mehr als zwei Spieler mit wählbarem Modus:
+ *
+ * MAXN:     jeder Spieler maximiert seinen eigenen Eintrag eines Bewertungsvektors. Die Einträge
+ *           sind nichtnegativ und summieren sich höchstens zu MAX_SUM, daher ist Shallow Pruning
+ *           möglich: erreicht der Spieler am Zug MAX_SUM minus den bisher besten Wert des
+ *           Elternspielers, kann dieser den Teilbaum nicht mehr wählen.
+ * PARANOID: alle Gegner spielen gemeinsam gegen den Wurzelspieler; das reduziert das Spiel auf
+ *           zwei Parteien und erlaubt vollen Alpha-Beta-Schnitt.
+ *
+ * Zuggenerator (make/unmake auf gepackten Zügen) und Blattbewertung ({@link ReflexAgent}) sind
+ * dieselben wie in {@link AlphaBetaSearch}. Ein blockierter Spieler beendet das Spiel zugunsten
+ * des Spielers, der zuletzt gezogen hat (wie in SantoriniGame.checkBlockade). Jede Instanz gehört
+ * genau einem Thread.
+ */
+final class MultiPlayerSearch {
+    public enum Mode { MAXN, PARANOID }
+
+    // Summe aller Einträge eines max^n-Vektors; ein Sieg bekommt den vollen Wert
+    static final int MAX_SUM = 10_000;
+    private static final int INFINITY = AlphaBetaSearch.WIN_SCORE + 1;
+    private static final int TIME_CHECK_MASK = 1023;
+
+    private final ReflexAgent evaluator;
+    private final Mode mode;
+    private final int[][] moveBuffers = new int[AlphaBetaSearch.MAX_PLY + 1][Board.MAX_MOVES];
+    private final int[][] values = new int[AlphaBetaSearch.MAX_PLY + 2][Board.MAX_PLAYERS];
+    private final double[] scores = new double[Board.MAX_PLAYERS];
+    private final int[] rootMoves = new int[Board.MAX_MOVES];
+
+    private Board board;
+    private int numPlayers;
+    private int rootPlayer;
+    private long deadline;
+    private long nodes;
+    private boolean aborted;
+
+    MultiPlayerSearch(ReflexAgent evaluator, Mode mode) {
+        this.evaluator = evaluator;
+        this.mode = mode;
+    }
+
+    Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Modus aus -Dsantorini.multiMode (maxn oder paranoid, Standard paranoid).
+     */
+    static Mode defaultMode() {
+        return "maxn".equalsIgnoreCase(System.getProperty("santorini.multiMode")) ? Mode.MAXN : Mode.PARANOID;
+    }
+
+    /**
+     * Iterative Vertiefung bis zur Deadline (System.nanoTime) oder {@code maxDepth}; liefert den
+     * besten Zug der letzten vollständig durchsuchten Tiefe. Die Bewertung ist im Modus MAXN der
+     * eigene Vektoreintrag (0..MAX_SUM), im Modus PARANOID wie in {@link AlphaBetaSearch}.
+     */
+    AlphaBetaSearch.Result search(Board root, long deadlineNanos, int maxDepth) {
+        long start = System.nanoTime();
+        this.board = root.clone();
+        this.numPlayers = board.getNumPlayers();
+        this.rootPlayer = board.getSideToMove();
+        this.deadline = deadlineNanos;
+        this.nodes = 0;
+        this.aborted = false;
+
+        int count = board.generateMoves(rootPlayer, rootMoves);
+        if (count == 0) {
+            return new AlphaBetaSearch.Result(-1, 0, 0, 0, System.nanoTime() - start);
+        }
+        for (int i = 0; i < count; i++) {
+            if (Move.isWin(rootMoves[i])) {
+                int score = mode == Mode.MAXN ? MAX_SUM : AlphaBetaSearch.WIN_SCORE - 1;
+                return new AlphaBetaSearch.Result(rootMoves[i], score, 1, 1, System.nanoTime() - start);
+            }
+        }
+
+        AlphaBetaSearch.Result best = new AlphaBetaSearch.Result(rootMoves[0], 0, 0, 0, 0);
+        maxDepth = Math.min(maxDepth, AlphaBetaSearch.MAX_PLY);
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            int bestIndex = -1;
+            int bestScore = -INFINITY;
+            for (int i = 0; i < count; i++) {
+                int token = board.makeMove(rootMoves[i]);
+                int score;
+                if (mode == Mode.MAXN) {
+                    maxn(depth - 1, 1, Math.max(bestScore, 0));
+                    score = values[1][rootPlayer];
+                } else {
+                    score = paranoid(depth - 1, 1, bestScore, INFINITY);
+                }
+                board.unmakeMove(token);
+                if (aborted) break;
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestIndex = i;
+                }
+            }
+            if (aborted) break;
+
+            int bestMove = rootMoves[bestIndex];
+            System.arraycopy(rootMoves, 0, rootMoves, 1, bestIndex);
+            rootMoves[0] = bestMove;
+
+            long elapsed = System.nanoTime() - start;
+            best = new AlphaBetaSearch.Result(bestMove, bestScore, depth, nodes, elapsed);
+
+            if (isDecided(bestScore)) break;
+            if (elapsed > (deadlineNanos - start) / 2) break;
+        }
+        return new AlphaBetaSearch.Result(best.move, best.score, best.depth, nodes, System.nanoTime() - start);
+    }
+
+    private boolean isDecided(int score) {
+        if (mode == Mode.MAXN) return score >= MAX_SUM;
+        return Math.abs(score) >= AlphaBetaSearch.WIN_THRESHOLD;
+    }
+
+    private boolean timeUp() {
+        if ((++nodes & TIME_CHECK_MASK) == 0 && System.nanoTime() > deadline) aborted = true;
+        return aborted;
+    }
+
+    //  max^n
+
+    /**
+     * Schreibt den Bewertungsvektor der aktuellen Stellung nach {@code values[ply]}.
+     * {@code parentBound} ist der bisher beste Wert des Elternspielers (für Shallow Pruning).
+     */
+    private void maxn(int depth, int ply, int parentBound) {
+        int[] out = values[ply];
+        if (timeUp()) return;
+
+        int side = board.getSideToMove();
+        int[] moves = moveBuffers[ply];
+        int count = board.generateMoves(side, moves);
+        if (count == 0) {
+            setWinner(out, (side + numPlayers - 1) % numPlayers);
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            if (Move.isWin(moves[i])) {
+                setWinner(out, side);
+                return;
+            }
+        }
+        if (depth <= 0 || ply >= AlphaBetaSearch.MAX_PLY) {
+            evaluateVector(out);
+            return;
+        }
+
+        int[] child = values[ply + 1];
+        int best = -1;
+        for (int i = 0; i < count; i++) {
+            int token = board.makeMove(moves[i]);
+            maxn(depth - 1, ply + 1, Math.max(best, 0));
+            board.unmakeMove(token);
+            if (aborted) return;
+
+            if (child[side] > best) {
+                best = child[side];
+                System.arraycopy(child, 0, out, 0, numPlayers);
+                // Shallow Pruning: der Elternspieler bekommt hier höchstens MAX_SUM - best
+                if (best >= MAX_SUM - parentBound) return;
+            }
+        }
+    }
+
+    private void setWinner(int[] out, int winner) {
+        Arrays.fill(out, 0, numPlayers, 0);
+        out[winner] = MAX_SUM;
+    }
+
+    /**
+     * Nichtnegativer Vektor mit Summe höchstens MAX_SUM: Stellungsterme jedes Spielers,
+     * verschoben auf Minimum 1 und anteilig skaliert.
+     */
+    private void evaluateVector(int[] out) {
+        double min = Double.POSITIVE_INFINITY;
+        for (int p = 0; p < numPlayers; p++) {
+            scores[p] = evaluator.positionalScore(board, p);
+            min = Math.min(min, scores[p]);
+        }
+        double sum = 0;
+        for (int p = 0; p < numPlayers; p++) {
+            scores[p] = scores[p] - min + 1.0;
+            sum += scores[p];
+        }
+        // MAX_SUM - 1: ein Sieg bleibt strikt besser als jede Bewertung
+        for (int p = 0; p < numPlayers; p++) {
+            out[p] = (int) ((MAX_SUM - 1) * scores[p] / sum);
+        }
+    }
+
+    //  Paranoid
+
+    private int paranoid(int depth, int ply, int alpha, int beta) {
+        if (timeUp()) return 0;
+
+        int side = board.getSideToMove();
+        int[] moves = moveBuffers[ply];
+        int count = board.generateMoves(side, moves);
+        if (count == 0) {
+            int winner = (side + numPlayers - 1) % numPlayers;
+            return winner == rootPlayer ? AlphaBetaSearch.WIN_SCORE - ply : -(AlphaBetaSearch.WIN_SCORE - ply);
+        }
+        for (int i = 0; i < count; i++) {
+            if (Move.isWin(moves[i])) {
+                int score = AlphaBetaSearch.WIN_SCORE - ply - 1;
+                return side == rootPlayer ? score : -score;
+            }
+        }
+        if (depth <= 0 || ply >= AlphaBetaSearch.MAX_PLY) {
+            int eval = evaluator.evaluateBoard(board, rootPlayer);
+            return Math.max(-AlphaBetaSearch.WIN_THRESHOLD + 1, Math.min(AlphaBetaSearch.WIN_THRESHOLD - 1, eval));
+        }
+
+        boolean maximizing = side == rootPlayer;
+        int best = maximizing ? -INFINITY : INFINITY;
+        for (int i = 0; i < count; i++) {
+            int token = board.makeMove(moves[i]);
+            int score = paranoid(depth - 1, ply + 1, alpha, beta);
+            board.unmakeMove(token);
+            if (aborted) return 0;
+
+            if (maximizing) {
+                if (score > best) best = score;
+                if (best > alpha) alpha = best;
+            } else {
+                if (score < best) best = score;
+                if (best < beta) beta = best;
+            }
+            if (alpha >= beta) break;
+        }
+        return best;
+    }
+}
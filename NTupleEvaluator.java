@@ -0,0 +1,236 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * N-Tupel-Netz als Stellungsbewertung (siehe {@link BoardEvaluator}).
+ *
+ * Jedes Feld hat aus Sicht des bewerteten Spielers einen von 13 Zuständen: Höhe 0..3 mal
+ * (frei, eigener Arbeiter, gegnerischer Arbeiter) oder Kuppel. Ein Tupel aus 4 Feldern indiziert
+ * damit eine Tabelle mit 13^4 Einträgen. Grundtupel sind drei Linienstücke (Rand-, zweite und
+ * mittlere Reihe) und drei 2x2-Blöcke (Ecke, Rand, Mitte); alle Bilder unter den 8 Symmetrien
+ * teilen sich die Tabelle ihres Grundtupels. Bewertet werden nur Stellungen nach dem Zug des
+ * Spielers (siehe {@link BoardEvaluator#evaluate}), daher gibt es nur einen Tabellensatz.
+ *
+ * Der Wert ist tanh der Summe aller 44 nachgeschlagenen Einträge. Trainiert wird per TD(0) über
+ * die Stellungen eines Spiels (Ziel ist der Wert der nächsten eigenen Stellung, zuletzt das
+ * Ergebnis); dabei ändern sich nur die berührten Einträge. Alle Tabellen liegen in einem
+ * float-Array; gespeichert werden nur die Einträge ungleich 0.
+ *
+ * Aufruf (Benchmark gegen lineares Modell und MLP; --check prüft die Suchblätter nach dem Training):
+ *   java NTupleEvaluator [stellungen] [sekunden]
+ *   java NTupleEvaluator --check
+ */
+public final class NTupleEvaluator implements BoardEvaluator {
+    static final int STATES = 13; // Höhe 0..3 x (frei, eigener, gegnerischer Arbeiter) + Kuppel
+    private static final int STATE_DOME = STATES - 1;
+    private static final int TUPLE_LENGTH = 4;
+    private static final int TABLE_SIZE = STATES * STATES * STATES * STATES;
+
+    // Grundtupel (Felder in Reihenfolge); die Symmetriebilder werden daraus erzeugt
+    private static final int[][] BASE_TUPLES = {
+            {Board.square(0, 0), Board.square(1, 0), Board.square(2, 0), Board.square(3, 0)},
+            {Board.square(0, 1), Board.square(1, 1), Board.square(2, 1), Board.square(3, 1)},
+            {Board.square(0, 2), Board.square(1, 2), Board.square(2, 2), Board.square(3, 2)},
+            {Board.square(0, 0), Board.square(1, 0), Board.square(0, 1), Board.square(1, 1)},
+            {Board.square(1, 0), Board.square(2, 0), Board.square(1, 1), Board.square(2, 1)},
+            {Board.square(1, 1), Board.square(2, 1), Board.square(1, 2), Board.square(2, 2)},
+    };
+    private static final int ENTRIES = BASE_TUPLES.length * TABLE_SIZE;
+
+    // alle Tupel: Felder flach (TUPLE_LENGTH pro Tupel) und Beginn der Tabelle ihres Grundtupels
+    private static final int[] TUPLE_SQUARES;
+    private static final int[] TUPLE_TABLE;
+    static final int TUPLES;
+
+    static {
+        List<int[]> squares = new ArrayList<>();
+        List<Integer> tables = new ArrayList<>();
+        for (int b = 0; b < BASE_TUPLES.length; b++) {
+            List<int[]> images = new ArrayList<>();
+            for (int t = 0; t < Symmetry.COUNT; t++) {
+                int[] image = new int[TUPLE_LENGTH];
+                for (int k = 0; k < TUPLE_LENGTH; k++) image[k] = Symmetry.map(t, BASE_TUPLES[b][k]);
+                boolean known = false;
+                for (int[] other : images) known |= Arrays.equals(other, image);
+                if (!known) images.add(image);
+            }
+            for (int[] image : images) {
+                squares.add(image);
+                tables.add(b * TABLE_SIZE);
+            }
+        }
+        TUPLES = squares.size();
+        TUPLE_SQUARES = new int[TUPLES * TUPLE_LENGTH];
+        TUPLE_TABLE = new int[TUPLES];
+        for (int i = 0; i < TUPLES; i++) {
+            System.arraycopy(squares.get(i), 0, TUPLE_SQUARES, i * TUPLE_LENGTH, TUPLE_LENGTH);
+            TUPLE_TABLE[i] = tables.get(i);
+        }
+    }
+
+    private static final int MAGIC = 0x534E5431; // "SNT1"
+    private static final float LEARNING_RATE = 0.05f / TUPLES; // Schrittweite bezogen auf die Summe
+
+    private final float[] weights = new float[ENTRIES];
+    private final List<int[]> history = new ArrayList<>(); // berührte Einträge der gemerkten Stellungen
+
+    // Feldzustände, einer pro Thread
+    private final ThreadLocal<int[]> cells = ThreadLocal.withInitial(() -> new int[Board.NUM_SQUARES]);
+
+    @Override
+    public String getName() {
+        return "ntuple";
+    }
+
+    /**
+     * Schreibt die Indizes der nachzuschlagenden Einträge (einer pro Tupel) nach {@code entries}.
+     */
+    private static void entries(Board board, int playerIndex, int[] cell, int[] entries) {
+        fillCells(board, playerIndex, cell);
+        for (int i = 0, s = 0; i < TUPLES; i++, s += TUPLE_LENGTH) {
+            entries[i] = TUPLE_TABLE[i] + cell[TUPLE_SQUARES[s]]
+                    + STATES * (cell[TUPLE_SQUARES[s + 1]]
+                    + STATES * (cell[TUPLE_SQUARES[s + 2]]
+                    + STATES * cell[TUPLE_SQUARES[s + 3]]));
+        }
+    }
+
+    // Zustand jedes Feldes aus Sicht von playerIndex
+    private static void fillCells(Board board, int playerIndex, int[] cell) {
+        int own = board.getWorkerMask(playerIndex);
+        int opponents = board.getOccupiedMask() & ~own;
+        for (int sq = 0; sq < Board.NUM_SQUARES; sq++) {
+            int level = board.levelAt(sq);
+            int occupant = ((own >>> sq) & 1) + 2 * ((opponents >>> sq) & 1);
+            cell[sq] = level == Board.MAX_LEVEL ? STATE_DOME : level * 3 + occupant;
+        }
+    }
+
+    @Override
+    public double evaluate(Board board, int playerIndex) {
+        int[] cell = cells.get();
+        fillCells(board, playerIndex, cell);
+        float sum = 0f;
+        for (int i = 0, s = 0; i < TUPLES; i++, s += TUPLE_LENGTH) {
+            sum += weights[TUPLE_TABLE[i] + cell[TUPLE_SQUARES[s]]
+                    + STATES * (cell[TUPLE_SQUARES[s + 1]]
+                    + STATES * (cell[TUPLE_SQUARES[s + 2]]
+                    + STATES * cell[TUPLE_SQUARES[s + 3]]))];
+        }
+        return Math.tanh(sum);
+    }
+
+    private double value(int[] entries) {
+        float sum = 0f;
+        for (int e : entries) sum += weights[e];
+        return Math.tanh(sum);
+    }
+
+    @Override
+    public synchronized void recordPosition(Board board, int playerIndex) {
+        int[] entries = new int[TUPLES];
+        entries(board, playerIndex, new int[Board.NUM_SQUARES], entries);
+        history.add(entries);
+    }
+
+    /**
+     * TD(0): jede Stellung lernt den Wert der nächsten, die letzte das Ergebnis.
+     */
+    @Override
+    public synchronized void learn(double reward) {
+        double target = Math.max(-1.0, Math.min(1.0, reward));
+        for (int t = 0; t < history.size(); t++) {
+            int[] entries = history.get(t);
+            double next = t + 1 < history.size() ? value(history.get(t + 1)) : target;
+            double v = value(entries);
+            float delta = (float) (LEARNING_RATE * (next - v) * (1 - v * v));
+            for (int e : entries) weights[e] += delta;
+        }
+        history.clear();
+    }
+
+    //  Speichern / Laden: Kennung, Tabellengröße, Anzahl, dann (Index, Gewicht) je Eintrag != 0
+
+    @Override
+    public synchronized void save(Path file) throws IOException {
+        int used = 0;
+        for (float w : weights) if (w != 0f) used++;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(weights.length);
+            out.writeInt(used);
+            for (int i = 0; i < weights.length; i++) {
+                if (weights[i] == 0f) continue;
+                out.writeInt(i);
+                out.writeFloat(weights[i]);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != weights.length) {
+                throw new IOException("Falsches Format oder andere Tupelgröße: " + file);
+            }
+            int used = in.readInt();
+            Arrays.fill(weights, 0f);
+            for (int k = 0; k < used; k++) {
+                int i = in.readInt();
+                if (i < 0 || i >= weights.length) throw new IOException("Ungültiger Index " + i + " in " + file);
+                weights[i] = in.readFloat();
+            }
+        }
+    }
+
+    /**
+     * Aufruf: java NTupleEvaluator [stellungen] [sekunden] — Bewertungen/s im Vergleich;
+     * java NTupleEvaluator --check — siehe {@link MlpEvaluator#verifySearchLeaves}.
+     */
+    public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--check")) {
+            System.exit(MlpEvaluator.verifySearchLeaves(new NTupleEvaluator(), 2000) ? 0 : 1);
+        }
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 2.0;
+        List<Board> positions = MlpEvaluator.samplePositions(count, 1);
+        ReflexAgent linear = new ReflexAgent("P1");
+        BoardEvaluator[] evaluators = {new NTupleEvaluator(), new MlpEvaluator()};
+
+        System.out.println(String.format("%d Stellungen, %d Tupel, %,d Einträge", positions.size(), TUPLES, ENTRIES));
+        for (int round = 0; round < 2; round++) { // erste Runde zum Aufwärmen des JIT
+            double sink = 0;
+            long evals = 0;
+            long start = System.nanoTime();
+            long end = start + (long) (seconds * 1e9);
+            while (System.nanoTime() < end) {
+                for (Board b : positions) sink += linear.evaluateBoard(b, MlpEvaluator.previousMover(b));
+                evals += positions.size();
+            }
+            double linearRate = evals / ((System.nanoTime() - start) / 1e9);
+            if (round == 1) System.out.println(String.format("%-8s %,14.0f Bewertungen/s", "linear", linearRate));
+
+            for (BoardEvaluator evaluator : evaluators) {
+                evals = 0;
+                start = System.nanoTime();
+                end = start + (long) (seconds * 1e9);
+                while (System.nanoTime() < end) {
+                    for (Board b : positions) sink += evaluator.evaluate(b, MlpEvaluator.previousMover(b));
+                    evals += positions.size();
+                }
+                double rate = evals / ((System.nanoTime() - start) / 1e9);
+                if (round == 1) {
+                    System.out.println(String.format("%-8s %,14.0f Bewertungen/s%s", evaluator.getName(), rate, sink == 42 ? " " : ""));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,292 @@
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Vorberechnete Eröffnungstabelle für die Platzierungsphase (zwei Spieler).
+ *
+ * Ein Arbeiterpaar ist eines der 300 ungeordneten Feldpaare. Für jedes Paar des ersten Spielers
+ * speichert die Tabelle die beste Antwort des zweiten Spielers und die Bewertung der Stellung
+ * danach (Suche fester Tiefe aus Sicht des ersten Spielers, der auch zuerst zieht). Der Generator
+ * sucht nur die Paare, die unter den 8 Brettsymmetrien kanonisch sind, und überträgt die
+ * Ergebnisse auf alle anderen.
+ *
+ * Dateiformat (big endian):
+ *   int MAGIC, int Suchtiefe, int Anzahl Paare (300), int reserviert
+ *   je Paar: int Bewertung, int Antwortpaar
+ *
+ * Die Datei wird per Memory Mapping gelesen; jede Abfrage ist ein direkter Indexzugriff.
+ * Pfad über -Dsantorini.openingBook (Standard opening_book.bin). Fehlt die Datei, liefern die
+ * Aufrufer wie bisher eine Zufallsplatzierung.
+ *
+ * Erzeugen: java OpeningBook [tiefe] [datei] [threads]
+ */
+public final class OpeningBook {
+    public static final String DEFAULT_FILE = "opening_book.bin";
+    public static final int DEFAULT_DEPTH = 5;
+
+    private static final int MAGIC = 0x53424F31; // "SBO1"
+    private static final int HEADER_BYTES = 16;
+    private static final int ENTRY_BYTES = 8;
+
+    public static final int PAIR_COUNT = Board.NUM_SQUARES * (Board.NUM_SQUARES - 1) / 2;
+    private static final int[] PAIR_FIRST = new int[PAIR_COUNT];
+    private static final int[] PAIR_SECOND = new int[PAIR_COUNT];
+    private static final int[] PAIR_INDEX = new int[Board.NUM_SQUARES * Board.NUM_SQUARES];
+
+    static {
+        Arrays.fill(PAIR_INDEX, -1);
+        int i = 0;
+        for (int a = 0; a < Board.NUM_SQUARES; a++) {
+            for (int b = a + 1; b < Board.NUM_SQUARES; b++) {
+                PAIR_FIRST[i] = a;
+                PAIR_SECOND[i] = b;
+                PAIR_INDEX[a * Board.NUM_SQUARES + b] = i;
+                PAIR_INDEX[b * Board.NUM_SQUARES + a] = i;
+                i++;
+            }
+        }
+    }
+
+    private final ByteBuffer data;
+    private final int depth;
+    private final int bestScore;
+
+    private OpeningBook(ByteBuffer data) throws IOException {
+        if (data.capacity() != HEADER_BYTES + PAIR_COUNT * ENTRY_BYTES
+                || data.getInt(0) != MAGIC || data.getInt(8) != PAIR_COUNT) {
+            throw new IOException("Keine gültige Eröffnungstabelle");
+        }
+        this.data = data;
+        this.depth = data.getInt(4);
+        int best = Integer.MIN_VALUE;
+        for (int p = 0; p < PAIR_COUNT; p++) best = Math.max(best, score(p));
+        this.bestScore = best;
+    }
+
+    /**
+     * Bildet die Datei in den Speicher ab.
+     */
+    public static OpeningBook load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new OpeningBook(buffer);
+        }
+    }
+
+    private static final class DefaultHolder {
+        static final OpeningBook INSTANCE = loadDefault();
+
+        private static OpeningBook loadDefault() {
+            Path file = Paths.get(System.getProperty("santorini.openingBook", DEFAULT_FILE));
+            if (!Files.isRegularFile(file)) return null;
+            try {
+                return load(file);
+            } catch (IOException e) {
+                System.err.println("Eröffnungstabelle " + file + " nicht lesbar: " + e.getMessage());
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Die Standardtabelle oder null, wenn keine Datei vorhanden ist (einmalig geladen).
+     */
+    public static OpeningBook getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Bewertung aus Sicht des ersten Spielers, wenn er {@code pair} setzt und der Gegner bestmöglich antwortet.
+     */
+    public int score(int pair) {
+        return data.getInt(HEADER_BYTES + pair * ENTRY_BYTES);
+    }
+
+    /**
+     * Beste Antwort des zweiten Spielers auf {@code pair}.
+     */
+    public int reply(int pair) {
+        return data.getInt(HEADER_BYTES + pair * ENTRY_BYTES + 4);
+    }
+
+    /**
+     * Ein Paar für den ersten Spieler, zufällig unter allen, die höchstens {@code margin} schlechter
+     * als das beste bewertet sind (margin 0: nur die besten).
+     */
+    public int firstPair(Random random, int margin) {
+        int candidates = 0;
+        int chosen = -1;
+        for (int p = 0; p < PAIR_COUNT; p++) {
+            if (score(p) >= bestScore - margin && random.nextInt(++candidates) == 0) chosen = p;
+        }
+        return chosen;
+    }
+
+    /**
+     * Vorschlag für die beiden Arbeiter von {@code player} als Feldpaar [a, b], oder null, wenn
+     * die Stellung nicht in der Tabelle liegt (mehr als zwei Spieler, Arbeiter teilweise gesetzt).
+     */
+    public int[] suggest(Board board, int player, Random random, int margin) {
+        if (board.getNumPlayers() != 2 || board.getWorkerMask(player) != 0) return null;
+        int opponentMask = board.getWorkerMask(1 - player);
+        int pair;
+        if (opponentMask == 0) {
+            pair = firstPair(random, margin);
+        } else if (Integer.bitCount(opponentMask) == 2) {
+            int a = Integer.numberOfTrailingZeros(opponentMask);
+            int b = 31 - Integer.numberOfLeadingZeros(opponentMask);
+            pair = reply(pairIndex(a, b));
+        } else {
+            return null;
+        }
+        return new int[]{PAIR_FIRST[pair], PAIR_SECOND[pair]};
+    }
+
+    public static int pairIndex(int squareA, int squareB) {
+        return PAIR_INDEX[squareA * Board.NUM_SQUARES + squareB];
+    }
+
+    static int transformPair(int t, int pair) {
+        return pairIndex(Symmetry.map(t, PAIR_FIRST[pair]), Symmetry.map(t, PAIR_SECOND[pair]));
+    }
+
+    //  Generator
+
+    /**
+     * Bewertet alle kanonischen Paare des ersten Spielers gegen alle Antworten und schreibt die Tabelle.
+     */
+    public static void generate(int depth, int threads, OutputStream out) throws IOException {
+        List<Integer> canonical = new ArrayList<>();
+        for (int p = 0; p < PAIR_COUNT; p++) {
+            boolean smallest = true;
+            for (int t = 1; t < Symmetry.COUNT; t++) {
+                if (transformPair(t, p) < p) smallest = false;
+            }
+            if (smallest) canonical.add(p);
+        }
+
+        int[] scores = new int[PAIR_COUNT];
+        int[] replies = new int[PAIR_COUNT];
+        // feste Standardgewichte, damit die Tabelle nicht von lokalen Gewichtsdateien abhängt
+        ReflexAgent evaluator = new ReflexAgent("P1", false);
+        ThreadLocal<AlphaBetaSearch> engines = ThreadLocal.withInitial(
+                () -> new AlphaBetaSearch(evaluator, new TranspositionTable()));
+        AtomicInteger done = new AtomicInteger();
+        long start = System.nanoTime();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            for (int first : canonical) {
+                running.add(pool.submit(() -> {
+                    int best = Integer.MAX_VALUE;
+                    int bestReply = -1;
+                    for (int second = 0; second < PAIR_COUNT; second++) {
+                        if (!disjoint(first, second)) continue;
+                        int score = evaluatePlacement(engines.get(), first, second, depth);
+                        if (score < best) {
+                            best = score;
+                            bestReply = second;
+                        }
+                    }
+                    scores[first] = best;
+                    replies[first] = bestReply;
+                    System.out.println(String.format("%3d/%d  %s,%s -> %s,%s  Bewertung %d  (%.0fs)",
+                            done.incrementAndGet(), canonical.size(),
+                            squareName(PAIR_FIRST[first]), squareName(PAIR_SECOND[first]),
+                            squareName(PAIR_FIRST[bestReply]), squareName(PAIR_SECOND[bestReply]),
+                            best, (System.nanoTime() - start) / 1e9));
+                }));
+            }
+            for (Future<?> f : running) f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Generierung unterbrochen", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Generierung fehlgeschlagen", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // Ergebnisse der kanonischen Paare auf die symmetrischen übertragen
+        for (int first : canonical) {
+            for (int t = 1; t < Symmetry.COUNT; t++) {
+                int image = transformPair(t, first);
+                scores[image] = scores[first];
+                replies[image] = transformPair(t, replies[first]);
+            }
+        }
+
+        DataOutputStream dos = new DataOutputStream(out);
+        dos.writeInt(MAGIC);
+        dos.writeInt(depth);
+        dos.writeInt(PAIR_COUNT);
+        dos.writeInt(0);
+        for (int p = 0; p < PAIR_COUNT; p++) {
+            dos.writeInt(scores[p]);
+            dos.writeInt(replies[p]);
+        }
+        dos.flush();
+    }
+
+    private static boolean disjoint(int pairA, int pairB) {
+        int a = (1 << PAIR_FIRST[pairA]) | (1 << PAIR_SECOND[pairA]);
+        int b = (1 << PAIR_FIRST[pairB]) | (1 << PAIR_SECOND[pairB]);
+        return (a & b) == 0;
+    }
+
+    private static int evaluatePlacement(AlphaBetaSearch engine, int first, int second, int depth) {
+        Board board = new Board(Arrays.asList("P1", "P2"));
+        board.placeWorker(0, 1, Board.colOf(PAIR_FIRST[first]), Board.rowOf(PAIR_FIRST[first]));
+        board.placeWorker(0, 2, Board.colOf(PAIR_SECOND[first]), Board.rowOf(PAIR_SECOND[first]));
+        board.placeWorker(1, 1, Board.colOf(PAIR_FIRST[second]), Board.rowOf(PAIR_FIRST[second]));
+        board.placeWorker(1, 2, Board.colOf(PAIR_SECOND[second]), Board.rowOf(PAIR_SECOND[second]));
+        board.setSideToMove(0);
+        return engine.search(board, System.nanoTime() + 3_600_000_000_000L, depth).score;
+    }
+
+    private static String squareName(int square) {
+        return "" + (char) ('a' + Board.colOf(square)) + (Board.rowOf(square) + 1);
+    }
+
+    /**
+     * Aufruf: java OpeningBook [tiefe] [datei] [threads]
+     */
+    public static void main(String[] args) throws IOException {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_DEPTH;
+        Path file = Paths.get(args.length > 1 ? args[1] : DEFAULT_FILE);
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        try (OutputStream out = Files.newOutputStream(file)) {
+            generate(depth, threads, out);
+        }
+        OpeningBook book = load(file);
+        int best = book.firstPair(new Random(0), 0);
+        int reply = book.reply(best);
+        System.out.println("Geschrieben: " + file + " (Tiefe " + depth + "). Beste Platzierung "
+                + squareName(PAIR_FIRST[best]) + "," + squareName(PAIR_SECOND[best]) + ", Antwort "
+                + squareName(PAIR_FIRST[reply]) + "," + squareName(PAIR_SECOND[reply])
+                + ", Bewertung " + book.score(best));
+    }
+}
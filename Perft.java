@@ -0,0 +1,193 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Perft-Werkzeug: zählt die Blattstellungen bis zu einer festen Tiefe und misst den Durchsatz
+ * der Zuggeneratoren. Vergleicht den gepackten Generator (Board.generateMoves + make/unmake)
+ * mit der List-API (ReflexAgent.getAllPossibleMoves + clone). Die Wurzelzüge werden per
+ * Fork-Join auf alle Kerne verteilt.
+ *
+ * Zählweise: ein Gewinnzug beendet das Spiel, seine Stellung ist nur in der letzten Tiefe ein Blatt;
+ * ein blockierter Spieler hat keine Nachfolger.
+ *
+ * Aufruf:
+ *   java Perft                      prüft alle Referenzstellungen (beide Generatoren)
+ *   java Perft <tiefe> [notation]   misst Knoten/s für eine Stellung (Standard: Eröffnung)
+ */
+public final class Perft {
+
+    /**
+     * Referenzstellungen (Notation siehe {@link Board#toNotation()}) mit bekannten Zählungen
+     * für Tiefe 1..4, ermittelt mit der ursprünglichen Listen-Implementierung von Board.
+     */
+    static final String[] REFERENCE_POSITIONS = {
+            "0000000000000000000000000 b2,d4 b4,d2 P1",
+            "0120101230021000120110200 b2,c4 d3,a5 P2",
+            "2431242304213203320240134 a1,b4 e1,c3 P1",
+            "0000000000000000000000000 a1,e5 e1,a5 c3,c1 P3",
+            "1223432104213223303240230 c2,e3 a3,d5 P1"
+    };
+    static final long[][] REFERENCE_COUNTS = {
+            {80, 6176, 426384, 29096316},
+            {44, 3603, 150666, 9462133},
+            {32, 1352, 25487, 554129},
+            {84, 2574, 78080, 4985228},
+            {51, 1730, 49438, 1268997}
+    };
+    // Tiefe, bis zu der die langsame List-API in der Prüfung mitläuft
+    private static final int LIST_CHECK_DEPTH = 3;
+
+    private Perft() {
+    }
+
+    /**
+     * Perft mit dem gepackten Generator; {@code buffers} braucht eine Zeile pro Tiefe.
+     */
+    public static long perft(Board board, int depth, int[][] buffers) {
+        if (depth == 0) return 1;
+        int[] moves = buffers[depth - 1];
+        int count = board.generateMoves(board.getSideToMove(), moves);
+        if (depth == 1) return count;
+
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            if (Move.isWin(moves[i])) continue; // Spielende vor der letzten Tiefe
+            int token = board.makeMove(moves[i]);
+            nodes += perft(board, depth - 1, buffers);
+            board.unmakeMove(token);
+        }
+        return nodes;
+    }
+
+    public static long perft(Board board, int depth) {
+        return perft(board, depth, new int[Math.max(depth, 1)][Board.MAX_MOVES]);
+    }
+
+    /**
+     * Perft über die List-API (ReflexAgent.getAllPossibleMoves und Board.clone pro Knoten).
+     */
+    public static long perftList(Board board, int depth, Map<String, ReflexAgent> agents) {
+        if (depth == 0) return 1;
+        String pid = board.getPlayerId(board.getSideToMove());
+        List<Move> moves = agents.computeIfAbsent(pid, ReflexAgent::new).getAllPossibleMoves(board);
+        if (depth == 1) return moves.size();
+
+        long nodes = 0;
+        for (Move move : moves) {
+            if (move.getBuildAt() == null) continue;
+            Board child = board.clone();
+            child.makeMove(move);
+            nodes += perftList(child, depth - 1, agents);
+        }
+        return nodes;
+    }
+
+    /**
+     * Paralleles Perft: jeder Wurzelzug wird als eigene Fork-Join-Aufgabe auf einer Kopie gezählt.
+     */
+    public static long perftParallel(Board board, int depth, ForkJoinPool pool) {
+        if (depth <= 1) return perft(board, depth);
+        return pool.invoke(new RootTask(board, depth));
+    }
+
+    private static final class RootTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final Board board;
+        private final int depth;
+        private final int move;
+
+        RootTask(Board board, int depth) {
+            this(board, depth, -1);
+        }
+
+        private RootTask(Board board, int depth, int move) {
+            this.board = board;
+            this.depth = depth;
+            this.move = move;
+        }
+
+        @Override
+        protected Long compute() {
+            if (move >= 0) {
+                Board child = board.clone();
+                child.makeMove(move);
+                return perft(child, depth - 1);
+            }
+            int[] moves = new int[Board.MAX_MOVES];
+            int count = board.generateMoves(board.getSideToMove(), moves);
+            List<RootTask> tasks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                if (!Move.isWin(moves[i])) tasks.add(new RootTask(board, depth, moves[i]));
+            }
+            long nodes = 0;
+            for (RootTask task : invokeAll(tasks)) nodes += task.join();
+            return nodes;
+        }
+    }
+
+    //  Kommandozeile
+
+    public static void main(String[] args) {
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        if (args.length == 0) {
+            System.exit(verify(pool) ? 0 : 1);
+        }
+
+        int depth = Integer.parseInt(args[0]);
+        String notation = args.length > 1 ? String.join(" ", Arrays.copyOfRange(args, 1, args.length))
+                : REFERENCE_POSITIONS[0];
+        Board board = Board.fromNotation(notation);
+        System.out.println("Stellung: " + board.toNotation() + ", Threads: " + pool.getParallelism());
+        for (int d = 1; d <= depth; d++) {
+            long start = System.nanoTime();
+            long nodes = perftParallel(board, d, pool);
+            report("perft(" + d + ")", nodes, System.nanoTime() - start);
+        }
+    }
+
+    private static boolean verify(ForkJoinPool pool) {
+        boolean ok = true;
+        Map<String, ReflexAgent> agents = new HashMap<>();
+        for (int p = 0; p < REFERENCE_POSITIONS.length; p++) {
+            Board board = Board.fromNotation(REFERENCE_POSITIONS[p]);
+            System.out.println("Stellung " + (p + 1) + ": " + REFERENCE_POSITIONS[p]);
+            for (int d = 1; d <= REFERENCE_COUNTS[p].length; d++) {
+                long expected = REFERENCE_COUNTS[p][d - 1];
+
+                long start = System.nanoTime();
+                long packed = perft(board, d);
+                ok &= check("  gepackt   d" + d, packed, expected, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                long parallel = perftParallel(board, d, pool);
+                ok &= check("  parallel  d" + d, parallel, expected, System.nanoTime() - start);
+
+                if (d <= LIST_CHECK_DEPTH) {
+                    start = System.nanoTime();
+                    long list = perftList(board, d, agents);
+                    ok &= check("  List-API  d" + d, list, expected, System.nanoTime() - start);
+                }
+            }
+        }
+        System.out.println(ok ? "Alle Perft-Zählungen korrekt." : "FEHLER: Perft-Zählungen weichen ab!");
+        return ok;
+    }
+
+    private static boolean check(String label, long nodes, long expected, long nanos) {
+        boolean ok = nodes == expected;
+        report(label + (ok ? "" : " (erwartet " + expected + ")"), nodes, nanos);
+        return ok;
+    }
+
+    private static void report(String label, long nodes, long nanos) {
+        double seconds = Math.max(nanos, 1) / 1_000_000_000.0;
+        System.out.println(String.format("%-32s %,14d Knoten  %8.3fs  %,14.0f Knoten/s",
+                label, nodes, seconds, nodes / seconds));
+    }
+}
@@ -0,0 +1,290 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Beweiszahlsuche (df-pn) für zwei Spieler: beweist oder widerlegt, dass der Spieler am Zug
+ * einen erzwungenen Gewinn hat, innerhalb eines Knoten- und Speicherbudgets.
+ *
+ * Formulierung als Negamax: jeder Knoten hat aus Sicht des Spielers am Zug eine Beweiszahl phi
+ * (Aufwand, den Gewinn zu beweisen) und eine Widerlegungszahl delta. Es gilt
+ *   phi(n) = min delta(Kind),  delta(n) = Summe phi(Kind).
+ * Die Tiefensuche folgt stets dem Kind mit kleinstem delta und kehrt erst zurück, wenn eine der
+ * Schwellen erreicht ist. Da jeder Zug ohne Sieg baut, gibt es keine Zyklen (kein GHI-Problem).
+ *
+ * Die Zahlen liegen in einer Hash-Tabelle aus primitiven Arrays (Buckets zu zwei Einträgen,
+ * verdrängt wird der Eintrag mit weniger Suchaufwand). Stellungen aus der {@link EndgameTable}
+ * gelten sofort als bewiesen bzw. widerlegt.
+ *
+ * Aufruf (Analyse gespeicherter Stellungen, eine Notation pro Zeile):
+ *   java ProofNumberSolver [datei] [maxKnoten] [MB]
+ */
+public final class ProofNumberSolver {
+    public enum Outcome { WIN, LOSS, UNKNOWN }
+
+    public static final int DEFAULT_SIZE_MB = 8;
+    public static final long DEFAULT_MAX_NODES = 200_000;
+    private static final int BYTES_PER_ENTRY = 20;
+    private static final int INFINITY = Integer.MAX_VALUE / 2;
+    // Spiellänge: jeder Zug ohne Sieg baut, höchstens 4 Stufen auf 25 Feldern
+    private static final int MAX_PLY = Board.NUM_SQUARES * Board.MAX_LEVEL + 2;
+    private static final int TIME_CHECK_MASK = 1023;
+
+    // Tabelle
+    private final long[] keys;
+    private final int[] phis;
+    private final int[] deltas;
+    private final int[] work;   // Knoten, die unter diesem Eintrag gesucht wurden (Ersetzungsstrategie)
+    private final int bucketMask;
+    private int used;
+
+    private final int[][] moveBuffers = new int[MAX_PLY][Board.MAX_MOVES];
+    private final long[][] childHashes = new long[MAX_PLY][Board.MAX_MOVES];
+    private final int[] endgameScratch = new int[Board.NUM_SQUARES];
+    private final EndgameTable endgame = EndgameTable.getDefault();
+
+    private Board board;
+    private long nodes;
+    private long maxNodes;
+    private long deadline;
+    private boolean aborted;
+
+    public ProofNumberSolver(int sizeMb) {
+        if (sizeMb <= 0) throw new IllegalArgumentException("Größe muss positiv sein: " + sizeMb);
+        long entries = Long.highestOneBit((long) sizeMb * 1024 * 1024 / BYTES_PER_ENTRY);
+        entries = Math.max(2, Math.min(entries, 1 << 28));
+        this.keys = new long[(int) entries];
+        this.phis = new int[(int) entries];
+        this.deltas = new int[(int) entries];
+        this.work = new int[(int) entries];
+        this.bucketMask = (int) (entries / 2) - 1;
+    }
+
+    public ProofNumberSolver() {
+        this(DEFAULT_SIZE_MB);
+    }
+
+    /**
+     * Ergebnis eines Beweisversuchs.
+     */
+    public static final class Result {
+        public final Outcome outcome;
+        public final int move;        // gepackter Gewinnzug (nur bei WIN), sonst -1
+        public final long nodes;
+        public final long nanos;
+        public final long tableBytes;
+        public final int tableEntries; // belegte Einträge
+
+        Result(Outcome outcome, int move, long nodes, long nanos, long tableBytes, int tableEntries) {
+            this.outcome = outcome;
+            this.move = move;
+            this.nodes = nodes;
+            this.nanos = nanos;
+            this.tableBytes = tableBytes;
+            this.tableEntries = tableEntries;
+        }
+
+        @Override
+        public String toString() {
+            String text = outcome == Outcome.WIN ? "Gewinn bewiesen" : outcome == Outcome.LOSS ? "Verlust bewiesen" : "nicht entschieden";
+            return String.format("%s, %,d Knoten in %.3fs, Tabelle %,d Einträge (%.1f MB)",
+                    text, nodes, nanos / 1_000_000_000.0, tableEntries, tableBytes / (1024.0 * 1024.0));
+        }
+    }
+
+    /**
+     * Versucht, die Stellung für den Spieler am Zug zu entscheiden. Bricht nach {@code maxNodes}
+     * Knoten oder an der Deadline (System.nanoTime) mit UNKNOWN ab. Die Tabelle wird vorher geleert.
+     */
+    public Result solve(Board root, long maxNodes, long deadlineNanos) {
+        if (root.getNumPlayers() != 2) throw new IllegalArgumentException("Beweiszahlsuche nur für zwei Spieler");
+        long start = System.nanoTime();
+        clear();
+        this.board = root.clone();
+        this.nodes = 0;
+        this.maxNodes = maxNodes;
+        this.deadline = deadlineNanos;
+        this.aborted = false;
+
+        mid(0, INFINITY - 1, INFINITY - 1);
+
+        long hash = board.getHash();
+        int slot = find(hash);
+        Outcome outcome = Outcome.UNKNOWN;
+        int move = -1;
+        if (slot >= 0 && phis[slot] == 0) {
+            outcome = Outcome.WIN;
+            move = provingMove();
+        } else if (slot >= 0 && deltas[slot] == 0) {
+            outcome = Outcome.LOSS;
+        }
+        return new Result(outcome, move, nodes, System.nanoTime() - start, tableBytes(), used);
+    }
+
+    public Result solve(Board root, long maxNodes) {
+        return solve(root, maxNodes, Long.MAX_VALUE);
+    }
+
+    /**
+     * Wurzelzug, nach dem der Gegner widerlegt ist (delta = 0 aus seiner Sicht).
+     */
+    private int provingMove() {
+        int[] moves = moveBuffers[0];
+        int count = board.generateMoves(board.getSideToMove(), moves);
+        for (int i = 0; i < count; i++) {
+            if (Move.isWin(moves[i])) return moves[i];
+        }
+        for (int i = 0; i < count; i++) {
+            int token = board.makeMove(moves[i]);
+            int slot = find(board.getHash());
+            board.unmakeMove(token);
+            if (slot >= 0 && deltas[slot] == 0) return moves[i];
+        }
+        return -1;
+    }
+
+    //  df-pn
+
+    private void mid(int ply, int thPhi, int thDelta) {
+        if ((++nodes & TIME_CHECK_MASK) == 0 && System.nanoTime() > deadline) aborted = true;
+        if (nodes > maxNodes) aborted = true;
+        long hash = board.getHash();
+        long nodesBefore = nodes;
+
+        int[] moves = moveBuffers[ply];
+        int count = board.generateMoves(board.getSideToMove(), moves);
+        if (count == 0) {
+            store(hash, INFINITY, 0, 1); // blockiert: verloren
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            if (Move.isWin(moves[i])) {
+                store(hash, 0, INFINITY, 1);
+                return;
+            }
+        }
+        if (endgame != null) {
+            int entry = endgame.probe(board, endgameScratch);
+            if (entry != 0) {
+                if (EndgameTable.isWin(entry)) store(hash, 0, INFINITY, 1);
+                else store(hash, INFINITY, 0, 1);
+                return;
+            }
+        }
+
+        long[] hashes = childHashes[ply];
+        for (int i = 0; i < count; i++) {
+            int token = board.makeMove(moves[i]);
+            hashes[i] = board.getHash();
+            // Gegner steht danach mit einem Schritt auf Level 3: Kind sofort als Gegnersieg eintragen
+            if (board.getWinningStepMask(board.getSideToMove()) != 0 && find(hashes[i]) < 0) {
+                store(hashes[i], 0, INFINITY, 1);
+            }
+            board.unmakeMove(token);
+        }
+
+        while (true) {
+            // phi = min delta(Kind), delta = Summe phi(Kind); dazu bestes und zweitbestes Kind
+            int phi = INFINITY;
+            int delta = 0;
+            int best = -1;
+            int bestPhi = 0;
+            int secondDelta = INFINITY;
+            for (int i = 0; i < count; i++) {
+                int slot = find(hashes[i]);
+                int childPhi = slot >= 0 ? phis[slot] : 1;
+                int childDelta = slot >= 0 ? deltas[slot] : 1;
+                delta = Math.min(INFINITY, delta + childPhi);
+                if (childDelta < phi) {
+                    secondDelta = phi;
+                    phi = childDelta;
+                    best = i;
+                    bestPhi = childPhi;
+                } else if (childDelta < secondDelta) {
+                    secondDelta = childDelta;
+                }
+            }
+            if (phi >= thPhi || delta >= thDelta || aborted) {
+                store(hash, phi, delta, (int) Math.min(Integer.MAX_VALUE, nodes - nodesBefore + 1));
+                return;
+            }
+
+            int childThPhi = thDelta - (delta - bestPhi);
+            int childThDelta = Math.min(thPhi, secondDelta + 1);
+            int token = board.makeMove(moves[best]);
+            mid(ply + 1, childThPhi, childThDelta);
+            board.unmakeMove(token);
+        }
+    }
+
+    //  Tabelle
+
+    private int find(long hash) {
+        int i = ((int) (hash ^ (hash >>> 32)) & bucketMask) << 1;
+        if (keys[i] == hash && work[i] != 0) return i;
+        if (keys[i + 1] == hash && work[i + 1] != 0) return i + 1;
+        return -1;
+    }
+
+    private void store(long hash, int phi, int delta, int effort) {
+        int i = ((int) (hash ^ (hash >>> 32)) & bucketMask) << 1;
+        int slot;
+        if (keys[i] == hash && work[i] != 0) {
+            slot = i;
+        } else if (keys[i + 1] == hash && work[i + 1] != 0) {
+            slot = i + 1;
+        } else {
+            // bewiesene Stellungen und große Teilbäume bleiben eher erhalten
+            slot = work[i] <= work[i + 1] ? i : i + 1;
+            if (work[slot] == 0) used++;
+        }
+        keys[slot] = hash;
+        phis[slot] = phi;
+        deltas[slot] = delta;
+        work[slot] = phi == 0 || delta == 0 ? Integer.MAX_VALUE : Math.max(effort, 1);
+    }
+
+    private void clear() {
+        Arrays.fill(work, 0);
+        used = 0;
+    }
+
+    public long tableBytes() {
+        return (long) keys.length * BYTES_PER_ENTRY;
+    }
+
+    //  Kommandozeile: gespeicherte Stellungen analysieren
+
+    /**
+     * Aufruf: java ProofNumberSolver [datei] [maxKnoten] [MB] — ohne Datei die Referenzstellungen.
+     */
+    public static void main(String[] args) throws IOException {
+        List<String> positions = new ArrayList<>();
+        if (args.length > 0 && !args[0].equals("-")) {
+            for (String line : Files.readAllLines(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) positions.add(line);
+            }
+        } else {
+            positions.addAll(Arrays.asList(Perft.REFERENCE_POSITIONS));
+        }
+        long maxNodes = args.length > 1 ? Long.parseLong(args[1]) : 10_000_000L;
+        int sizeMb = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+
+        ProofNumberSolver solver = new ProofNumberSolver(sizeMb);
+        for (String notation : positions) {
+            Board board = Board.fromNotation(notation);
+            if (board.getNumPlayers() != 2) {
+                System.out.println(notation + ": übersprungen (nur zwei Spieler)");
+                continue;
+            }
+            Result r = solver.solve(board, maxNodes);
+            String move = r.move >= 0 ? ", Zug " + Move.toNotation(r.move) : "";
+            System.out.println(notation + ": " + r + move);
+        }
+    }
+}
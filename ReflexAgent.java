@@ -2,6 +2,7 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 
@@ -12,9 +13,15 @@ import java.util.Random;
  * - Speicherung der Feature-History pro Spiel
  *
  * Hinweis: Datei-Speicherung erfolgt als CSV: weights_<playerId>.csv
+ *
+ * Optional ersetzt ein {@link BoardEvaluator} (-Dsantorini.evaluator) die Stellungsbewertung:
+ * Kandidatenzüge werden dann nach dem Wert der Stellung nach dem Zug sortiert (plus die exakten
+ * Features Gewinn und Abwehr), Suchblätter nach dem Wert der Stellung. Seine Gewichte liegen in
+ * <name>_<playerId>.bin und werden mit den linearen Gewichten geladen, trainiert und gespeichert.
  */
 public class ReflexAgent {
     private final String playerId;
+    private final int defaultIndex; // Index bei Standard-IDs "P1".."P3", sonst -1
     private final Random random;
 
     //  LERNPARAMETER
@@ -33,15 +40,59 @@ public class ReflexAgent {
     private static final int W_BLOCK_OPP_WIN_IDX = 7; // NEUES FEATURE
     private static final int NUM_WEIGHTS = 8;        // NEUE ANZAHL
 
+    //  ALTERNATIVE BEWERTUNG (null = lineares Modell)
+    private final BoardEvaluator boardEvaluator;
+    private static final double VALUE_SCALE = 1000.0;  // Wert [-1, 1] -> Utility-Einheiten
+    private static final double REWARD_SCALE = 1000.0; // Belohnung +-1000 -> Ergebnis +-1
+
+    // Zentrumsbonus pro Feld (wie W_CENTER_CONTROL: 2 in der Mitte, 1 direkt daneben)
+    private static final int[] CENTER_BONUS = new int[Board.NUM_SQUARES];
+
+    static {
+        for (int sq = 0; sq < Board.NUM_SQUARES; sq++) {
+            int distCenter = Math.abs(Board.colOf(sq) - 2) + Math.abs(Board.rowOf(sq) - 2);
+            CENTER_BONUS[sq] = distCenter <= 1 ? 2 - distCenter : 0;
+        }
+    }
+
+    //  BATCH-BEWERTUNG (wiederverwendet, nur im Thread von chooseMove)
+    // Feature-Matrix spaltenweise pro Feature: batchFeatures[f * MAX_MOVES + i] = Feature f von Zug i
+    private final double[] batchFeatures = new double[NUM_WEIGHTS * Board.MAX_MOVES];
+    private final double[] batchUtilities = new double[Board.MAX_MOVES];
+    private final int[] batchMoves = new int[Board.MAX_MOVES];
+    private final int[] batchBest = new int[Board.MAX_MOVES];
+
     //  HISTORY für Learning (pro Spiel)
     // speichert Feature-Vektoren, die während des Spiels gewählt wurden
     private final List<double[]> featureHistory;
 
     public ReflexAgent(String playerId) {
+        this(playerId, true);
+    }
+
+    /**
+     * @param useStoredState false: feste Standardgewichte, keine Gewichtsdatei und keine
+     *                       alternative Bewertung (-Dsantorini.evaluator), z.B. für
+     *                       reproduzierbar erzeugte Tabellen
+     */
+    ReflexAgent(String playerId, boolean useStoredState) {
+        this(playerId, useStoredState, useStoredState ? BoardEvaluator.fromProperty() : null);
+    }
+
+    /**
+     * Feste Standardgewichte mit der übergebenen alternativen Bewertung (z.B. für Benchmarks).
+     */
+    ReflexAgent(String playerId, BoardEvaluator evaluator) {
+        this(playerId, false, evaluator);
+    }
+
+    private ReflexAgent(String playerId, boolean useStoredState, BoardEvaluator evaluator) {
         this.playerId = playerId;
+        this.defaultIndex = Board.defaultPlayerIndex(playerId);
         this.random = new Random();
         this.weights = new double[NUM_WEIGHTS];
         this.featureHistory = new ArrayList<>();
+        this.boardEvaluator = evaluator;
 
         // Standardinitialisierung (wie zuvor)
         weights[W_WIN_IDX] = 50000;
@@ -53,6 +104,8 @@ public class ReflexAgent {
         weights[W_MOVE_DOWN_IDX] = -10;
         weights[W_BLOCK_OPP_WIN_IDX] = 10000;
 
+        if (!useStoredState) return;
+
         // Versuche beim Erzeugen Gewichte zu laden (falls vorhanden)
         try {
             loadWeights();
@@ -71,6 +124,17 @@ public class ReflexAgent {
         return Paths.get(filename);
     }
 
+    private Path getEvaluatorPath() {
+        return Paths.get(boardEvaluator.getName() + "_" + playerId + ".bin");
+    }
+
+    /**
+     * Alternative Stellungsbewertung oder null, wenn das lineare Modell verwendet wird.
+     */
+    public BoardEvaluator getBoardEvaluator() {
+        return boardEvaluator;
+    }
+
     /**
      * Speichert die aktuellen Gewichte in eine CSV-Datei.
      */
@@ -87,12 +151,22 @@ public class ReflexAgent {
         } catch (IOException e) {
             System.err.println("ReflexAgent " + playerId + ": Fehler beim Speichern der Gewichte: " + e.getMessage());
         }
+        if (boardEvaluator != null) {
+            try {
+                boardEvaluator.save(getEvaluatorPath());
+            } catch (IOException e) {
+                System.err.println("ReflexAgent " + playerId + ": Fehler beim Speichern der Bewertung: " + e.getMessage());
+            }
+        }
     }
 
     /**
      * Lädt Gewichte aus CSV, falls die Datei existiert.
      */
     public synchronized void loadWeights() throws IOException {
+        if (boardEvaluator != null && Files.exists(getEvaluatorPath())) {
+            boardEvaluator.load(getEvaluatorPath());
+        }
         Path p = getWeightsPath();
         if (!Files.exists(p)) return;
         String content = new String(Files.readAllBytes(p), StandardCharsets.UTF_8).trim();
@@ -111,107 +185,115 @@ public class ReflexAgent {
 
     /**
      * Generiert alle legalen Züge für den Agenten.
-     * (bleibt inhaltlich wie in deiner Version)
+     * Baut auf {@link #generateMoves(Board, int[])} auf und dekodiert die gepackten Züge.
      */
     public List<Move> getAllPossibleMoves(Board board) {
-        List<Move> allMoves = new ArrayList<>();
-        List<Worker> myWorkers = board.getWorkersByPlayer(playerId);
+        int[] buffer = new int[Board.MAX_MOVES];
+        int count = generateMoves(board, buffer);
 
-        if (myWorkers == null || myWorkers.isEmpty()) {
-            return allMoves;
+        List<Move> allMoves = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            allMoves.add(Move.of(buffer[i]));
         }
+        return allMoves;
+    }
 
-        for (Worker worker : myWorkers) {
-            int[] workerCoord = worker.getCoord();
-
-            List<int[]> moveTargets = board.getValidMoveTargets(workerCoord);
-
-            for (int[] moveTo : moveTargets) {
-                if (board.checkWin(moveTo)) {
-                    Move winMove = new Move(workerCoord, moveTo);
-                    if (!allMoves.contains(winMove)) {
-                        allMoves.add(winMove);
-                    }
-                    continue;
-                }
-
-                List<int[]> potentialBuildTargets = board.getValidBuildTargets(moveTo);
-
-                // optional: erlaubt Bauen auf dem Feld, das gerade verlassen wurde
-                boolean containsFrom = false;
-                for (int[] t : potentialBuildTargets) {
-                    if (t[0] == workerCoord[0] && t[1] == workerCoord[1]) { containsFrom = true; break;}
-                }
-                if (!containsFrom) {
-                    // (nur hinzufügen wenn nicht domed/occupied — Board.getValidBuildTargets hat das schon geprüft)
-                    potentialBuildTargets.add(workerCoord);
-                }
+    /**
+     * Spielerindex dieses Agenten auf dem Board. Die String-ID wird nur verglichen, wenn das
+     * Board die Spieler nicht in der Standardreihenfolge führt.
+     */
+    public int indexOn(Board board) {
+        int i = defaultIndex;
+        if (i >= 0 && i < board.getNumPlayers() && playerId.equals(board.getPlayerId(i))) return i;
+        return board.getPlayerIndex(playerId);
+    }
 
-                for (int[] buildAt : potentialBuildTargets) {
-                    allMoves.add(new Move(workerCoord, moveTo, buildAt));
-                }
-            }
-        }
-        return allMoves;
+    /**
+     * Schreibt alle legalen Züge des Agenten gepackt (siehe {@link Move#pack}) in den
+     * wiederverwendbaren Puffer des Aufrufers und liefert deren Anzahl (ohne Allokation).
+     */
+    public int generateMoves(Board board, int[] buffer) {
+        int playerIndex = indexOn(board);
+        if (playerIndex < 0) return 0;
+        return board.generateMoves(playerIndex, buffer);
     }
 
     /**
      * Extrahiert Features (Vektor) für einen Move auf dem gegebenen Board.
      */
     private double[] extractFeatures(Move move, Board board) {
+        int packed = move.toPacked();
+        int threats = opponentWinningSteps(board, board.getOwnerAt(Move.fromSquare(packed)));
         double[] features = new double[NUM_WEIGHTS];
-        int[] from = move.getMoveFrom();
-        int[] to = move.getMoveTo();
-        int[] build = move.getBuildAt();
+        extractFeatures(packed, board, threats, features, 0, 1);
+        return features;
+    }
+
+    /**
+     * Gewinnfelder aller Gegner von {@code playerIndex} (siehe {@link Board#getWinningStepMask}):
+     * freie Level-3-Felder, die ein Gegner im nächsten Zug betreten kann. Wird einmal pro
+     * Stellung berechnet; jeder Zug prüft dagegen nur noch seine Bau- und Zielfelder.
+     */
+    public static int opponentWinningSteps(Board board, int playerIndex) {
+        int threats = 0;
+        for (int p = 0; p < board.getNumPlayers(); p++) {
+            if (p != playerIndex) threats |= board.getWinningStepMask(p);
+        }
+        return threats;
+    }
+
+    /**
+     * Schreibt die Features eines gepackten Zuges nach {@code features[offset + f * stride]}
+     * (ohne Allokation): stride 1 für einen einzelnen Vektor, MAX_MOVES für eine Spalte der
+     * Batch-Matrix. {@code threats} sind die Gewinnfelder der Gegner ({@link #opponentWinningSteps}).
+     */
+    private void extractFeatures(int packed, Board board, int threats, double[] features, int offset, int stride) {
+        int from = Move.fromSquare(packed);
+        int to = Move.toSquare(packed);
+        boolean hasBuild = !Move.isWin(packed);
 
         // LevelInformationen
-        int currentLevel = board.getLevel(from[0], from[1]);
-        int targetLevel = board.getLevel(to[0], to[1]);
-        int buildLevelBefore = (build != null) ? board.getLevel(build[0], build[1]) : -1;
+        int currentLevel = board.levelAt(from);
+        int targetLevel = board.levelAt(to);
+        int buildLevelBefore = hasBuild ? board.levelAt(Move.buildSquare(packed)) : -1;
         int buildLevelAfter = (buildLevelBefore != -1 && buildLevelBefore < Board.MAX_LEVEL) ? buildLevelBefore + 1 : buildLevelBefore;
 
         //  W_WIN
-        if (move.getBuildAt() == null && board.checkWin(to)) {
-            features[W_WIN_IDX] = 1.0;
-        }
+        features[offset + W_WIN_IDX * stride] = (!hasBuild && targetLevel == 3) ? 1.0 : 0.0;
 
         //  W_ADVANCE (Vorbereitung auf Level 3)
-        if (targetLevel == 2 || targetLevel == 3) {
-            features[W_ADVANCE_IDX] = (targetLevel == 3 ? 3.0 : 1.0);
-        }
+        features[offset + W_ADVANCE_IDX * stride] = targetLevel == 3 ? 3.0 : (targetLevel == 2 ? 1.0 : 0.0);
 
         //  W_BLOCK_OPP / W_BUILD_THREAT
-        if (build != null) {
-            if (buildLevelAfter == 3) {
-                features[W_BUILD_THREAT_IDX] = 1.0;
-            }
-            if (buildLevelAfter == Board.MAX_LEVEL) {
-                features[W_BLOCK_OPP_IDX] = 1.0;
-            }
-        }
+        features[offset + W_BUILD_THREAT_IDX * stride] = buildLevelAfter == 3 ? 1.0 : 0.0;
+        features[offset + W_BLOCK_OPP_IDX * stride] = buildLevelAfter == Board.MAX_LEVEL ? 1.0 : 0.0;
 
         //  W_CENTER_CONTROL
-        int distCenter = Math.abs(to[0] - 2) + Math.abs(to[1] - 2);
-        if (distCenter <= 1) {
-            features[W_CENTER_CONTROL_IDX] = (2 - distCenter);
-        }
+        features[offset + W_CENTER_CONTROL_IDX * stride] = CENTER_BONUS[to];
 
         //  W_MOVE_UP / W_MOVE_DOWN
-        if (targetLevel > currentLevel) {
-            features[W_MOVE_UP_IDX] = (targetLevel - currentLevel);
-        } else if (targetLevel < currentLevel) {
-            features[W_MOVE_DOWN_IDX] = 1.0;
-        }
+        features[offset + W_MOVE_UP_IDX * stride] = targetLevel > currentLevel ? targetLevel - currentLevel : 0.0;
+        features[offset + W_MOVE_DOWN_IDX * stride] = targetLevel < currentLevel ? 1.0 : 0.0;
 
-        return features;
+        //  W_BLOCK_OPP_WIN: Kuppel auf dem letzten gegnerischen Gewinnfeld (ein freies Level-3-Feld
+        //  kann ein Zug ohne Sieg nicht betreten, nur überbauen)
+        int blocked = buildLevelAfter == Board.MAX_LEVEL ? 1 << Move.buildSquare(packed) : 0;
+        features[offset + W_BLOCK_OPP_WIN_IDX * stride] = (threats != 0 && (threats & ~blocked) == 0) ? 1.0 : 0.0;
     }
 
     /**
-     * Utility: Skalarprodukt w^T * features
+     * Utility: Skalarprodukt w^T * features (mit alternativer Bewertung siehe scoreAfterStates)
      */
     private double calculateUtility(Move move, Board board) {
         double utility = 0;
         double[] features = extractFeatures(move, board);
+        int me = indexOn(board);
+        if (boardEvaluator != null && me >= 0) {
+            Board after = board.clone();
+            after.setSideToMove(me);
+            after.makeMove(move.toPacked());
+            return afterStateUtility(features[W_WIN_IDX], features[W_BLOCK_OPP_WIN_IDX], boardEvaluator.evaluate(after, me));
+        }
 
         for (int i = 0; i < NUM_WEIGHTS; i++) {
             utility += weights[i] * features[i];
@@ -220,6 +302,137 @@ public class ReflexAgent {
         return utility;
     }
 
+    /**
+     * Utility eines gepackten Zuges ohne Allokation; {@code scratch} braucht
+     * {@link #getNumWeights()} Einträge (z.B. für Rollouts in der Baumsuche).
+     */
+    public double moveUtility(Board board, int packed, double[] scratch) {
+        return moveUtility(board, packed, scratch, opponentWinningSteps(board, board.getOwnerAt(Move.fromSquare(packed))));
+    }
+
+    /**
+     * Wie {@link #moveUtility(Board, int, double[])} mit vorab berechneten Gewinnfeldern der
+     * Gegner, wenn viele Züge derselben Stellung bewertet werden.
+     */
+    public double moveUtility(Board board, int packed, double[] scratch, int threats) {
+        extractFeatures(packed, board, threats, scratch, 0, 1);
+        double utility = 0;
+        for (int i = 0; i < NUM_WEIGHTS; i++) {
+            utility += weights[i] * scratch[i];
+        }
+        return utility;
+    }
+
+    /**
+     * Bewertet alle {@code count} Züge in einem Durchgang: füllt die Feature-Matrix (ein
+     * zusammenhängender Block pro Feature) und summiert danach featureweise in
+     * {@code batchUtilities}. Die inneren Schleifen laufen linear über die Züge, so dass der
+     * JIT sie vektorisieren kann.
+     */
+    private void scoreMoves(Board board, int[] moves, int count) {
+        int threats = count > 0 ? opponentWinningSteps(board, board.getOwnerAt(Move.fromSquare(moves[0]))) : 0;
+        for (int i = 0; i < count; i++) {
+            extractFeatures(moves[i], board, threats, batchFeatures, i, Board.MAX_MOVES);
+        }
+        double[] utilities = batchUtilities;
+        Arrays.fill(utilities, 0, count, 0.0);
+        for (int f = 0; f < NUM_WEIGHTS; f++) {
+            double w = weights[f];
+            int base = f * Board.MAX_MOVES;
+            for (int i = 0; i < count; i++) {
+                utilities[i] += w * batchFeatures[base + i];
+            }
+        }
+    }
+
+    /**
+     * Ersetzt die Utilities aus {@link #scoreMoves} durch den Wert der Stellung nach dem Zug
+     * laut {@link #boardEvaluator}; Gewinn und Abwehr eines Gewinnzugs zählen weiterhin exakt.
+     */
+    private void scoreAfterStates(Board board, int[] moves, int count) {
+        int me = indexOn(board);
+        Board after = board.clone();
+        after.setSideToMove(me);
+        int win = W_WIN_IDX * Board.MAX_MOVES;
+        int block = W_BLOCK_OPP_WIN_IDX * Board.MAX_MOVES;
+        for (int i = 0; i < count; i++) {
+            int token = after.makeMove(moves[i]);
+            double value = boardEvaluator.evaluate(after, me);
+            after.unmakeMove(token);
+            batchUtilities[i] = afterStateUtility(batchFeatures[win + i], batchFeatures[block + i], value);
+        }
+    }
+
+    // Utility mit alternativer Bewertung: Wert nach dem Zug plus die exakten Features Gewinn und Abwehr
+    private double afterStateUtility(double winFeature, double blockFeature, double value) {
+        return weights[W_WIN_IDX] * winFeature + weights[W_BLOCK_OPP_WIN_IDX] * blockFeature + VALUE_SCALE * value;
+    }
+
+    /**
+     * Wert von {@link #boardEvaluator} aus Sicht von {@code playerIndex}. Trainiert und abgefragt
+     * wird nur auf Stellungen nach dem eigenen Zug (ein anderer Spieler am Zug). Ist
+     * {@code playerIndex} selbst am Zug, gilt daher der negierte Wert des Spielers, der zuletzt
+     * gezogen hat (bei drei Spielern eine Näherung).
+     */
+    private double afterStateValue(Board board, int playerIndex) {
+        int side = board.getSideToMove();
+        if (side != playerIndex) return boardEvaluator.evaluate(board, playerIndex);
+        int n = board.getNumPlayers();
+        return -boardEvaluator.evaluate(board, (side + n - 1) % n);
+    }
+
+    // Features von Zug i aus der Batch-Matrix (für die History)
+    private double[] batchFeaturesOf(int i) {
+        double[] features = new double[NUM_WEIGHTS];
+        for (int f = 0; f < NUM_WEIGHTS; f++) {
+            features[f] = batchFeatures[f * Board.MAX_MOVES + i];
+        }
+        return features;
+    }
+
+    public static int getNumWeights() {
+        return NUM_WEIGHTS;
+    }
+
+    /**
+     * Statische Stellungsbewertung aus Sicht von {@code playerIndex} für die Blätter einer Suche.
+     * Verwendet dieselben Gewichte wie die Zugbewertung (Aufstieg, Höhe, Zentrum, erreichbare
+     * Level-3-Felder als Bedrohung): eigene Terme minus die Terme aller Gegner.
+     */
+    public int evaluateBoard(Board board, int playerIndex) {
+        if (boardEvaluator != null) return (int) Math.round(VALUE_SCALE * afterStateValue(board, playerIndex));
+        double score = 0;
+        for (int p = 0; p < board.getNumPlayers(); p++) {
+            double s = positionalScore(board, p);
+            score += (p == playerIndex) ? s : -s;
+        }
+        return (int) Math.round(score);
+    }
+
+    /**
+     * Stellungsterme eines einzelnen Spielers (ohne Gegner), z.B. für Bewertungsvektoren
+     * in der Mehrspieler-Suche.
+     */
+    public double positionalScore(Board board, int playerIndex) {
+        if (boardEvaluator != null) return VALUE_SCALE * afterStateValue(board, playerIndex);
+        int level3 = board.getLevelMask(3) & ~board.getLevelMask(Board.MAX_LEVEL) & ~board.getOccupiedMask();
+        double s = 0;
+        int workers = board.getWorkerMask(playerIndex);
+        while (workers != 0) {
+            int sq = Integer.numberOfTrailingZeros(workers);
+            workers &= workers - 1;
+
+            int level = board.levelAt(sq);
+            if (level >= 2) {
+                s += weights[W_ADVANCE_IDX] * (level == 3 ? 3.0 : 1.0);
+                s += weights[W_BUILD_THREAT_IDX] * Integer.bitCount(Board.neighbors(sq) & level3);
+            }
+            s += weights[W_MOVE_UP_IDX] * level;
+            s += weights[W_CENTER_CONTROL_IDX] * CENTER_BONUS[sq];
+        }
+        return s;
+    }
+
     /**
      * Update-Gewichte am Spielende.
      * Einfache Form: für jeden gespeicherten Feature-Vektor x:
@@ -230,6 +443,9 @@ public class ReflexAgent {
      * Danach wird die Feature-History geleert.
      */
     public synchronized void updateWeights(double finalReward) {
+        if (boardEvaluator != null) {
+            boardEvaluator.learn(Math.max(-1.0, Math.min(1.0, finalReward / REWARD_SCALE)));
+        }
         if (featureHistory.isEmpty()) {
 
             return;
@@ -256,40 +472,46 @@ public class ReflexAgent {
      * - speichert das Feature-Vector des tatsächlich gewählten Zuges in featureHistory
      */
     public MoveEvaluation chooseMove(Board board) {
-        List<Move> possibleMoves = getAllPossibleMoves(board);
-        if (possibleMoves.isEmpty()) {
+        int[] moves = batchMoves;
+        int count = generateMoves(board, moves);
+        if (count == 0) {
             return new MoveEvaluation(null, "Keine legalen Züge möglich. KI ist blockiert.");
         }
 
+        // Endspiel: perfekter Zug aus der Tabelle
+        MoveEvaluation endgameMove = chooseEndgameMove(board);
+        if (endgameMove != null) return endgameMove;
+
         // Exploration
         if (EPSILON > 0 && random.nextDouble() < EPSILON) {
-            Move rnd = possibleMoves.get(random.nextInt(possibleMoves.size()));
+            Move rnd = Move.of(moves[random.nextInt(count)]);
             // speichere Feature für Training
-            double[] feat = extractFeatures(rnd, board);
-            featureHistory.add(feat);
+            recordChosenMove(rnd, board);
             String expl = "Explorativ zufälliger Zug.";
             return new MoveEvaluation(rnd, expl);
         }
 
+        scoreMoves(board, moves, count);
+        if (boardEvaluator != null) scoreAfterStates(board, moves, count);
         double maxUtility = Double.NEGATIVE_INFINITY;
-        List<Move> bestMoves = new ArrayList<>();
-
-        for (Move move : possibleMoves) {
-            double utility = calculateUtility(move, board);
+        int bestCount = 0;
+        for (int i = 0; i < count; i++) {
+            double utility = batchUtilities[i];
             if (utility > maxUtility) {
                 maxUtility = utility;
-                bestMoves.clear();
-                bestMoves.add(move);
+                bestCount = 0;
+                batchBest[bestCount++] = i;
             } else if (utility == maxUtility) {
-                bestMoves.add(move);
+                batchBest[bestCount++] = i;
             }
         }
 
-        Move finalMove = bestMoves.get(random.nextInt(bestMoves.size()));
+        int chosen = batchBest[random.nextInt(bestCount)];
+        Move finalMove = Move.of(moves[chosen]);
 
-        // speichere Features der gewählten Aktion (für späteres Lernen)
-        double[] chosenFeatures = extractFeatures(finalMove, board);
-        featureHistory.add(chosenFeatures);
+        // speichere Features der gewählten Aktion (für späteres Lernen), direkt aus der Matrix
+        featureHistory.add(batchFeaturesOf(chosen));
+        recordAfterState(moves[chosen], board);
 
         // erklärung
         String explanation = generateExplanation(finalMove, (int)Math.round(maxUtility), board);
@@ -297,6 +519,75 @@ public class ReflexAgent {
         return new MoveEvaluation(finalMove, explanation);
     }
 
+    /**
+     * Perfekter Zug aus der {@link EndgameTable} (schnellster Gewinn bzw. spätester Verlust) oder
+     * null, wenn keine Tabelle geladen ist oder sie die Stellung nicht abdeckt.
+     */
+    protected MoveEvaluation chooseEndgameMove(Board board) {
+        EndgameTable endgame = EndgameTable.getDefault();
+        int me = indexOn(board);
+        if (endgame == null || me < 0) return null;
+        Board position = board.clone();
+        position.setSideToMove(me);
+        int entry = endgame.probe(position);
+        if (entry == 0) return null;
+
+        int[] moves = new int[Board.MAX_MOVES];
+        int count = position.generateMoves(me, moves);
+        int best = -1;
+        int bestRank = Integer.MIN_VALUE;
+        for (int i = 0; i < count && bestRank < Integer.MAX_VALUE; i++) {
+            int rank;
+            if (Move.isWin(moves[i])) {
+                rank = Integer.MAX_VALUE;
+            } else {
+                int token = position.makeMove(moves[i]);
+                int reply = endgame.probe(position);
+                position.unmakeMove(token);
+                if (reply == 0) continue;
+                // Gegner verliert: schnell gewinnen; Gegner gewinnt: möglichst lange hinauszögern
+                int distance = EndgameTable.distance(reply);
+                rank = EndgameTable.isWin(reply) ? Integer.MIN_VALUE / 2 + distance : -distance;
+            }
+            if (rank > bestRank) {
+                bestRank = rank;
+                best = moves[i];
+            }
+        }
+        if (best < 0) return null;
+
+        Move move = Move.of(best);
+        recordChosenMove(move, board);
+        String outcome = EndgameTable.isWin(entry) ? "Gewinn" : "Verlust";
+        return new MoveEvaluation(move, "Endspieltabelle: " + outcome + " in " + EndgameTable.distance(entry) + " Plies.");
+    }
+
+    /**
+     * Merkt sich die Features des tatsächlich gespielten Zuges für {@link #updateWeights}.
+     * Unterklassen, die den Zug selbst bestimmen (z.B. per Suche), rufen dies ebenfalls auf.
+     */
+    protected void recordChosenMove(Move move, Board board) {
+        featureHistory.add(extractFeatures(move, board));
+        recordAfterState(move.toPacked(), board);
+    }
+
+    // Stellung nach dem gewählten Zug für das Training der alternativen Bewertung
+    private void recordAfterState(int packed, Board board) {
+        int me = indexOn(board);
+        if (boardEvaluator == null || me < 0 || Move.isWin(packed)) return;
+        Board after = board.clone();
+        after.setSideToMove(me);
+        after.makeMove(packed);
+        boardEvaluator.recordPosition(after, me);
+    }
+
+    /**
+     * Erklärungstext für einen Zug auf Basis seiner Utility (Board vor dem Zug).
+     */
+    protected String explainMove(Move move, Board board) {
+        return generateExplanation(move, (int) Math.round(calculateUtility(move, board)), board);
+    }
+
     //  Hilfsfunktionen
 
     private String generateExplanation(Move move, int utility, Board board) {
@@ -341,6 +632,14 @@ public class ReflexAgent {
             }
         }
 
+        int threats = opponentWinningSteps(board, indexOn(board));
+        if (threats != 0) {
+            int blocked = (build != null && buildLevelAfter == Board.MAX_LEVEL) ? 1 << Board.square(build[0], build[1]) : 0;
+            if (blocked != 0 && (threats & ~blocked) == 0) {
+                sb.append(" [ABWEHR] Verhindert den gegnerischen Gewinnzug. ");
+            }
+        }
+
         int distCenter = Math.abs(to[0] - 2) + Math.abs(to[1] - 2);
         if (distCenter <= 1) {
             sb.append(" [ZENTRUM] Kontrolliert das Zentrum. ");
@@ -359,11 +658,14 @@ public class ReflexAgent {
     }
 
     private boolean isBuildNearOpponent(int[] buildCoord, Board board) {
-        for (int[] neighbor : board.getNeighbors(buildCoord)) {
-            String workerId = board.getWorkerIdAt(neighbor[0], neighbor[1]);
-            if (workerId != null && !workerId.equals(playerId)) {
+        int me = indexOn(board);
+        int neighbors = Board.neighbors(Board.square(buildCoord[0], buildCoord[1]));
+        while (neighbors != 0) {
+            int owner = board.getOwnerAt(Integer.numberOfTrailingZeros(neighbors));
+            if (owner >= 0 && owner != me) {
                 return true;
             }
+            neighbors &= neighbors - 1;
         }
         return false;
     }
@@ -384,10 +686,16 @@ public class ReflexAgent {
     public static class MoveEvaluation {
         public final Move move;
         public final String evaluation;
+        public final SearchReport report; // Suchbericht (nur SearchAgent mit Berichten), sonst null
 
-        public MoveEvaluation(Move move, String evaluation) {
+        public MoveEvaluation(Move move, String evaluation, SearchReport report) {
             this.move = move;
             this.evaluation = evaluation;
+            this.report = report;
+        }
+
+        public MoveEvaluation(Move move, String evaluation) {
+            this(move, evaluation, null);
         }
     }
 }
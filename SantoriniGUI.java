@@ -40,6 +40,8 @@ public class SantoriniGUI extends PApplet {
     private int[] moveToCoord = null;
     private GamePhase phase = GamePhase.SETUP_OPPONENTS;
     private boolean aiThinking = false;
+    private Thread aiThread = null;                             // rechnet den laufenden KI-Zug
+    private volatile ReflexAgent.MoveEvaluation aiResult = null; // Ergebnis, sobald aiThread fertig ist
     private String moveEvaluation = "Willkommen bei Santorini! Wähle Spieleranzahl.";
 
     private String logMessage = "";
@@ -110,12 +112,12 @@ public class SantoriniGUI extends PApplet {
         if (opponents == 1) {
             this.playerIds.add("P2");
             // ÄNDERUNG: SmartAgent instanziieren
-            agents.put("P2", new SmartAgent("P2"));
+            agents.put("P2", SmartAgent.create("P2", "search"));
         } else if (opponents == 2) {
             this.playerIds.add("P2");
             this.playerIds.add("P3");
             // ÄNDERUNG: SmartAgent instanziieren
-            agents.put("P3", new SmartAgent("P3"));
+            agents.put("P3", SmartAgent.create("P3", "search"));
         }
 
         this.board = new Board(playerIds);
@@ -167,7 +169,7 @@ public class SantoriniGUI extends PApplet {
         if (gameOver) {
             drawGameOverScreen();
         } else if (aiThinking) {
-            // KI-Zug synchron ausführen (Processing-thread-sensibel)
+            // KI-Zug im Hintergrund rechnen, Ergebnis hier im Zeichen-Thread anwenden
             runAiTurn();
         }
     }
@@ -471,8 +473,19 @@ public class SantoriniGUI extends PApplet {
                 break;
             }
 
-            // Setze beide Arbeiter der KI (falls noch nicht gesetzt)
+            // Setze beide Arbeiter der KI (falls noch nicht gesetzt), bevorzugt aus der Eröffnungstabelle
             int already = board.getWorkersByPlayer(currentPlayerId) == null ? 0 : board.getWorkersByPlayer(currentPlayerId).size();
+            OpeningBook book = OpeningBook.getDefault();
+            int[] squares = book == null ? null : book.suggest(board, board.getPlayerIndex(currentPlayerId), random, 0);
+            if (squares != null) {
+                for (int i = 0; i < squares.length; i++) {
+                    int col = Board.colOf(squares[i]);
+                    int row = Board.rowOf(squares[i]);
+                    board.placeWorker(currentPlayerId, i + 1, col, row);
+                    logMessage += "\n" + currentPlayerId + " platziert Arbeiter " + (i + 1) + ": " + coordToNotation(col, row);
+                }
+                already = workersToPlace;
+            }
             for (int i = already + 1; i <= workersToPlace; i++) {
                 int col, row;
                 do {
@@ -495,6 +508,7 @@ public class SantoriniGUI extends PApplet {
             // Stelle sicher, dass currentPlayerId auf den gewählten Startspieler gesetzt ist
             currentPlayerIndex = playerIds.indexOf(startPlayerId);
             currentPlayerId = startPlayerId;
+            board.setSideToMove(currentPlayerIndex);
             moveEvaluation = "Alle Arbeiter platziert! " + currentPlayerId + " beginnt.";
 
             phase = GamePhase.MOVE_WORKER;
@@ -502,6 +516,8 @@ public class SantoriniGUI extends PApplet {
             if (agents.containsKey(currentPlayerId)) {
                 aiThinking = true;
                 phase = GamePhase.WAIT_FOR_AI;
+            } else {
+                startPondering();
             }
         } else {
 
@@ -539,6 +555,7 @@ public class SantoriniGUI extends PApplet {
                 placingWorkers = false;
                 currentPlayerIndex = playerIds.indexOf(startPlayerId);
                 currentPlayerId = startPlayerId;
+                board.setSideToMove(currentPlayerIndex);
                 moveEvaluation = "Alle Arbeiter platziert! " + currentPlayerId + " beginnt.";
                 phase = GamePhase.MOVE_WORKER;
                 if (agents.containsKey(currentPlayerId)) {
@@ -546,6 +563,7 @@ public class SantoriniGUI extends PApplet {
                     phase = GamePhase.WAIT_FOR_AI;
                     return;
                 }
+                startPondering();
                 return;
             }
 
@@ -569,7 +587,7 @@ public class SantoriniGUI extends PApplet {
                 List<int[]> moveTargets = board.getValidMoveTargets(selectedWorkerCoord);
                 if (targetsContain(moveTargets, clickedCoord)) {
                     if (board.checkWin(clickedCoord)) {
-                        Move move = new Move(selectedWorkerCoord, clickedCoord);
+                        Move move = Move.of(selectedWorkerCoord, clickedCoord);
                         executeMove(currentPlayerId, move);
                         return;
                     }
@@ -587,7 +605,7 @@ public class SantoriniGUI extends PApplet {
 
         } else if (phase == GamePhase.CHOOSE_BUILD_TARGET) {
             if (isBuildTargetValid(moveToCoord, moveFromCoord, clickedCoord)) {
-                Move move = new Move(moveFromCoord, moveToCoord, clickedCoord);
+                Move move = Move.of(moveFromCoord, moveToCoord, clickedCoord);
                 executeMove(currentPlayerId, move);
                 moveFromCoord = null;
                 moveToCoord = null;
@@ -626,26 +644,17 @@ public class SantoriniGUI extends PApplet {
 
     //  überladene Methode, die die KI-Bewertung akzeptiert
     private void executeMove(String playerId, Move move, String externalEvaluation) {
-        // Board-Zustand vor dem Zug klonen
-        Board before = board.clone();
-
-        //  Bewegung und Bauen ausführen
-        board.moveWorker(playerId, move.getMoveFrom(), move.getMoveTo());
-        if (move.getBuildAt() != null) {
-            board.buildStructure(move.getBuildAt());
-        }
-
-        // Zustand nach dem Zug klonen
-        Board after = board.clone();
-
-        //  Bewertung generieren ODER externen String verwenden
+        //  Bewertung generieren (auf dem Zustand vor dem Zug) ODER externen String verwenden
         if (externalEvaluation != null) {
             moveEvaluation = externalEvaluation; // KI-Bewertung übernehmen
         } else {
             // Alte Logik für menschliche Züge verwenden
-            moveEvaluation = evaluateMove(before, after, move, playerId);
+            moveEvaluation = evaluateMove(board, move, playerId);
         }
 
+        //  Bewegung und Bauen in-place ausführen (ersetzt die früheren Board-Klone)
+        board.makeMove(move);
+
         //  Notation fürs Logbuch
         String notation = formatMoveNotation(move);
         logMessage += "\n" + playerId + ": " + notation;
@@ -668,12 +677,16 @@ public class SantoriniGUI extends PApplet {
         phase = GamePhase.MOVE_WORKER;
     }
 
-    private String evaluateMove(Board before, Board after, Move move, String playerId) {
+    /**
+     * Bewertet einen menschlichen Zug auf dem Board-Zustand VOR dem Zug.
+     * Das Level des Zielfeldes ändert sich durch den Zug nicht (dort wird nie gebaut).
+     */
+    private String evaluateMove(Board before, Move move, String playerId) {
         int[] from = move.getMoveFrom();
         int[] to = move.getMoveTo();
         int[] build = move.getBuildAt();
         int levelBefore = before.getLevel(from[0], from[1]);
-        int levelAfter = after.getLevel(to[0], to[1]);
+        int levelAfter = before.getLevel(to[0], to[1]);
         StringBuilder eval = new StringBuilder();
         eval.append(playerId).append(" zieht von ").append(coordToNotation(from)).append(" nach ").append(coordToNotation(to));
         if (levelAfter > levelBefore) eval.append(" (steigt auf Level ").append(levelAfter).append(")");
@@ -716,6 +729,10 @@ public class SantoriniGUI extends PApplet {
     }
 
 
+    /**
+     * Startet den KI-Zug in einem eigenen Thread bzw. wendet dessen Ergebnis an, sobald es
+     * vorliegt. Wird aus draw() aufgerufen; die Suche blockiert das Fenster damit nicht.
+     */
     private void runAiTurn() {
         if (!agents.containsKey(currentPlayerId)) {
             aiThinking = false;
@@ -725,14 +742,32 @@ public class SantoriniGUI extends PApplet {
         // SmartAgent
         SmartAgent agent = agents.get(currentPlayerId);
 
-        try {
-            TimeUnit.MILLISECONDS.sleep(300);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+        if (aiThread == null) {
+            Board snapshot = board.clone();
+            aiResult = null;
+            aiThread = new Thread(() -> {
+                if (!agent.usesThinkingTime()) {
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(300);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                aiResult = agent.chooseMove(snapshot);
+            }, "santorini-ai-turn");
+            aiThread.setDaemon(true);
+            aiThread.start();
+            return;
         }
+        if (aiResult == null) return; // rechnet noch
 
-        ReflexAgent.MoveEvaluation evaluation = agent.chooseMove(board);
+        ReflexAgent.MoveEvaluation evaluation = aiResult;
+        aiResult = null;
+        aiThread = null;
         Move move = evaluation.move;
+        if (agent.getSearchSummary() != null) {
+            System.out.println("[KI-Suche " + currentPlayerId + "] " + agent.getSearchSummary());
+        }
 
         if (move == null) {
             gameOver = true;
@@ -761,6 +796,23 @@ public class SantoriniGUI extends PApplet {
         } else if (!gameOver) {
             moveEvaluation = "Dein Zug! Wähle einen Arbeiter.";
             phase = GamePhase.MOVE_WORKER;
+            startPondering();
+        }
+    }
+
+    /**
+     * Lässt die KI-Agenten während des menschlichen Zuges (MOVE_WORKER/CHOOSE_BUILD_TARGET) im
+     * Hintergrund weitersuchen. Kehrt sofort zurück; der Zeichen-Thread wird nicht blockiert.
+     */
+    private void startPondering() {
+        for (SmartAgent agent : agents.values()) {
+            agent.startPondering(board);
+        }
+    }
+
+    private void stopPondering() {
+        for (SmartAgent agent : agents.values()) {
+            agent.stopPondering();
         }
     }
     /**
@@ -768,6 +820,7 @@ public class SantoriniGUI extends PApplet {
      * und die Gewichte anzupassen.
      */
     private void finalizeLearning(String winnerId) {
+        stopPondering();
         // ÄNDERUNG: Iteriere über SmartAgent und rufe notifyGameEnd auf
         for (Map.Entry<String, SmartAgent> entry : agents.entrySet()) {
             SmartAgent agent = entry.getValue();
@@ -8,16 +8,25 @@ import java.util.concurrent.TimeUnit;
  */
 public class SantoriniGame {
     private final Board board;
-    private final Map<String, ReflexAgent> agents;
+    private final Map<String, SmartAgent> agents;
     private final List<String> playerIds;
     private int currentPlayerIndex;
     private boolean gameOver = false;
     private String winnerId = null;
     private final Map<String, Double> timeBank; // Zeitpolster
 
+    // Zeitregel: Züge über MOVE_TIME_LIMIT Sekunden werden vom Zeitpolster abgezogen
+    private static final double MOVE_TIME_LIMIT = 10.0;
+    // Sicherheitsabstand der Suche zur Zeitregel und Anteil des Polsters, den sie pro Zug nutzt
+    private static final double SEARCH_SAFETY_MARGIN = 0.5;
+    private static final double TIME_BANK_SHARE = 0.02;
+
     // Der Scanner wird nur einmal für System.in initialisiert und übergeben
     private final Scanner scanner;
 
+    // wiederverwendbarer Puffer für gepackte Züge
+    private final int[] moveBuffer = new int[Board.MAX_MOVES];
+
     public SantoriniGame(int totalPlayers, Scanner existingScanner) {
         this.scanner = existingScanner;
         this.playerIds = new ArrayList<>();
@@ -31,7 +40,7 @@ public class SantoriniGame {
 
             // Nur der letzte Spieler ist KI
             if (i == totalPlayers) {
-                ReflexAgent agent = new ReflexAgent(pid);
+                SmartAgent agent = SmartAgent.create(pid, "search");
                 agents.put(pid, agent);
                 timeBank.put(pid, 120.0);
             }
@@ -53,6 +62,7 @@ public class SantoriniGame {
 
         // 2. Haupt-Spielschleife
         currentPlayerIndex = 0;
+        board.setSideToMove(currentPlayerIndex);
         while (!gameOver) {
             String currentPlayerId = playerIds.get(currentPlayerIndex);
 
@@ -81,6 +91,21 @@ public class SantoriniGame {
     private void setupWorkers(String playerId) {
         System.out.println("\n--- " + playerId + " Platzierungsphase ---");
 
+        // KI-Platzierung aus der Eröffnungstabelle (nur zwei Spieler), sonst zufällig
+        OpeningBook book = OpeningBook.getDefault();
+        if (agents.containsKey(playerId) && book != null) {
+            int[] squares = book.suggest(board, board.getPlayerIndex(playerId), new Random(), 0);
+            if (squares != null) {
+                for (int i = 0; i < squares.length; i++) {
+                    int col = Board.colOf(squares[i]);
+                    int row = Board.rowOf(squares[i]);
+                    board.placeWorker(playerId, i + 1, col, row);
+                    System.out.println("KI " + playerId + " platziert Arbeiter " + (i + 1) + ": " + coordToNotation(col, row) + " (Eröffnungstabelle)");
+                }
+                return;
+            }
+        }
+
         for (int i = 1; i <= 2; i++) { // 2 Arbeiter pro Spieler
             boolean placed = false;
             while (!placed) {
@@ -127,26 +152,35 @@ public class SantoriniGame {
 
     private void handleAiTurn(String playerId) {
         System.out.println("\n--- " + playerId + " (KI) ist am Zug ---");
-        ReflexAgent agent = agents.get(playerId);
+        SmartAgent agent = agents.get(playerId);
 
-        //  Simulation einer Bedenkzeit
         long startTime = System.nanoTime();
-        try {
-            TimeUnit.MILLISECONDS.sleep(new Random().nextInt(500) + 200);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        ReflexAgent.MoveEvaluation evaluation;
+        if (agent.usesThinkingTime()) {
+            // Suchende KI nutzt die erlaubte Bedenkzeit tatsächlich aus
+            evaluation = agent.chooseMove(board, searchBudgetMillis(playerId));
+            if (agent.getSearchSummary() != null) {
+                System.out.println("KI-Suche: " + agent.getSearchSummary());
+            }
+        } else {
+            //  Simulation einer Bedenkzeit
+            try {
+                TimeUnit.MILLISECONDS.sleep(new Random().nextInt(500) + 200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
 
-        // Agent wählt den Zug und liefert die Bewertung
-        ReflexAgent.MoveEvaluation evaluation = agent.chooseMove(board);
+            // Agent wählt den Zug und liefert die Bewertung
+            evaluation = agent.chooseMove(board);
+        }
         long endTime = System.nanoTime();
         double elapsedSeconds = (endTime - startTime) / 1_000_000_000.0;
 
         // 1. ZUG-ZEIT-REGEL PRÜFEN
         System.out.println("KI-Bedenkzeit: " + String.format("%.2f", elapsedSeconds) + "s");
 
-        if (elapsedSeconds > 10.0) {
-            double penalty = elapsedSeconds - 10.0;
+        if (elapsedSeconds > MOVE_TIME_LIMIT) {
+            double penalty = elapsedSeconds - MOVE_TIME_LIMIT;
             timeBank.put(playerId, timeBank.get(playerId) - penalty);
             System.out.println("WARNUNG: Zug hat " + String.format("%.2f", elapsedSeconds) + "s gedauert. Strafe: " + String.format("%.2f", penalty) + "s.");
 
@@ -175,6 +209,16 @@ public class SantoriniGame {
         System.out.println("-------------------------------\n");
     }
 
+    /**
+     * Suchzeit für den nächsten KI-Zug: knapp unter der Zeitregel plus ein kleiner Anteil des
+     * verbleibenden Zeitpolsters (der Anteil schrumpft mit dem Polster, es wird nie ganz aufgebraucht).
+     */
+    private long searchBudgetMillis(String playerId) {
+        double bank = Math.max(0.0, timeBank.getOrDefault(playerId, 0.0));
+        double seconds = MOVE_TIME_LIMIT - SEARCH_SAFETY_MARGIN + bank * TIME_BANK_SHARE;
+        return (long) (seconds * 1000);
+    }
+
 // ... (Rest der Klasse bleibt unverändert)2
 
     private void handleHumanTurn(String playerId) {
@@ -197,8 +241,8 @@ public class SantoriniGame {
     }
 
     private void executeMove(String playerId, Move move) {
-        // 1. Bewegung ausführen
-        board.moveWorker(playerId, move.getMoveFrom(), move.getMoveTo());
+        // 1. Bewegung (und ggf. Bau) ausführen – ein Gewinnzug enthält kein Baufeld
+        board.makeMove(move);
 
         // 2. Gewinn prüfen
         if (board.checkWin(move.getMoveTo())) {
@@ -208,20 +252,16 @@ public class SantoriniGame {
             return;
         }
 
-        // 3. Bauen ausführen
-        board.buildStructure(move.getBuildAt());
-
         // Notationsprotokoll (Anforderung 1d)
         System.out.println("Zug ausgeführt: " + formatMoveNotation(move));
     }
 
     private boolean checkBlockade() {
         String currentPlayerId = playerIds.get(currentPlayerIndex);
-        ReflexAgent agent = agents.get(currentPlayerId);
+        SmartAgent agent = agents.get(currentPlayerId);
 
         if (agent != null) {
-            List<Move> possibleMoves = agent.getAllPossibleMoves(board);
-            if (possibleMoves.isEmpty()) {
+            if (agent.generateMoves(board, moveBuffer) == 0) {
                 gameOver = true;
                 winnerId = playerIds.get((currentPlayerIndex - 1 + playerIds.size()) % playerIds.size());
                 System.out.println("\n!!! " + currentPlayerId + " ist blockiert und kann nicht ziehen. " + winnerId + " gewinnt. !!!");
@@ -245,8 +285,9 @@ public class SantoriniGame {
         }
 
         // 2. Ziel muss ein gültiges Bewegungsziel sein
-        boolean isValidMoveTarget = board.getValidMoveTargets(moveFrom).stream()
-                .anyMatch(coord -> Arrays.equals(coord, moveTo));
+        int fromSquare = Board.square(moveFrom[0], moveFrom[1]);
+        int toSquare = Board.square(moveTo[0], moveTo[1]);
+        boolean isValidMoveTarget = (board.getMoveTargetMask(fromSquare) & (1 << toSquare)) != 0;
 
         if (!isValidMoveTarget) {
             System.out.println("Fehler: " + coordToNotation(moveTo) + " ist kein gültiges Zielfeld für die Bewegung.");
@@ -269,8 +310,7 @@ public class SantoriniGame {
         }
 
         // 5. Ist das Baufeld ein Nachbar des NEUEN Standorts (moveTo)?
-        boolean isNeighborOfMoveTo = board.getNeighbors(moveTo).stream()
-                .anyMatch(coord -> Arrays.equals(coord, buildAt));
+        boolean isNeighborOfMoveTo = Board.isNeighbor(toSquare, Board.square(buildAt[0], buildAt[1]));
 
         if (!isNeighborOfMoveTo) {
             System.out.println("Fehler: " + coordToNotation(buildAt) + " ist kein Nachbarfeld von " + coordToNotation(moveTo) + ".");
@@ -331,9 +371,9 @@ public class SantoriniGame {
         if (moveFrom == null || moveTo == null) return null;
 
         if (buildAt != null) {
-            return new Move(moveFrom, moveTo, buildAt);
+            return Move.of(moveFrom, moveTo, buildAt);
         } else {
-            return new Move(moveFrom, moveTo);
+            return Move.of(moveFrom, moveTo);
         }
     }
 
@@ -0,0 +1,225 @@
+// SearchAgent.java
+// Extends SmartAgent: wählt Züge per Alpha-Beta-Suche statt per Ein-Zug-Bewertung
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Agent, der seine Züge mit einer Negamax-Alpha-Beta-Suche (iterative Vertiefung) bestimmt.
+ * Die gelernten Gewichte des ReflexAgent dienen als Blattbewertung, die Features des gewählten
+ * Zuges werden weiterhin für das Lernen am Spielende gespeichert. Eine Transpositionstabelle
+ * (Größe in MB über -Dsantorini.ttMb, Standard 16) bleibt über alle Züge des Agenten erhalten.
+ * Mit mehr als einem Thread (-Dsantorini.searchThreads, Standard: alle Kerne) wird parallel
+ * per Lazy SMP gesucht.
+ *
+ * Bei mehr als zwei Spielern sucht der Agent einthreadig mit {@link MultiPlayerSearch}
+ * (Modus über -Dsantorini.multiMode=maxn|paranoid, Standard paranoid).
+ *
+ * Pondern (nur zwei Spieler): während der Gegner überlegt, durchsucht ein Hintergrundthread
+ * dessen Stellung und füllt so die Transpositionstabelle mit den Antworten auf seine
+ * wahrscheinlichen Züge. Die anschließende eigene Suche muss dann nur die Tiefe der letzten
+ * eigenen Suche (bzw. die beim Pondern erreichte) erreichen und ist meist sofort fertig.
+ *
+ * Suchberichte ({@link SearchReport}: Tiefe, Knoten/s, TT-Trefferquote, Verzweigungsfaktor,
+ * Hauptvariante, Iterationen) entstehen nur, wenn sie mit {@link #setReportsEnabled} eingeschaltet
+ * sind oder ein {@link SearchListener} registriert ist. Sie hängen dann an der MoveEvaluation.
+ */
+public class SearchAgent extends SmartAgent {
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 2000;
+
+    private final TranspositionTable table;
+    private final LazySmpSearch search;
+    private final MultiPlayerSearch multiSearch;
+    private long timeBudgetMillis = DEFAULT_TIME_BUDGET_MILLIS;
+    private AlphaBetaSearch.Result lastResult;
+    private boolean lastMultiPlayer;
+
+    // Suchberichte
+    private final List<SearchListener> listeners = new CopyOnWriteArrayList<>();
+    private boolean reportsEnabled;
+    private SearchReport lastReport;
+
+    // Pondern
+    // (Start/Stopp aus GUI- und KI-Thread, daher synchronisiert)
+    private volatile Thread ponderThread;
+    private volatile AtomicBoolean ponderStop;
+    private volatile AlphaBetaSearch.Result ponderResult;
+    private int ponderDepth;   // Tiefe der zuletzt beendeten Ponder-Suche (0 = keine)
+    private int searchedDepth; // Tiefe der letzten eigenen Zwei-Spieler-Suche, mit oder ohne Pondern
+
+    public SearchAgent(String playerId) {
+        this(playerId, LazySmpSearch.defaultThreads());
+    }
+
+    public SearchAgent(String playerId, int threads) {
+        super(playerId);
+        this.table = new TranspositionTable(Integer.getInteger("santorini.ttMb", TranspositionTable.DEFAULT_SIZE_MB));
+        this.search = new LazySmpSearch(this, table, threads);
+        this.multiSearch = new MultiPlayerSearch(this, MultiPlayerSearch.defaultMode());
+    }
+
+    public int getThreads() { return search.getThreads(); }
+
+    public void setTimeBudgetMillis(long millis) { this.timeBudgetMillis = millis; }
+    public long getTimeBudgetMillis() { return timeBudgetMillis; }
+
+    /**
+     * Ergebnis (Tiefe, Knoten, Knoten/s) der letzten Suche oder null.
+     */
+    public AlphaBetaSearch.Result getLastResult() { return lastResult; }
+
+    public TranspositionTable getTranspositionTable() { return table; }
+
+    public void addSearchListener(SearchListener listener) { listeners.add(listener); }
+    public void removeSearchListener(SearchListener listener) { listeners.remove(listener); }
+
+    /**
+     * Erzeugt auch ohne Listener Suchberichte für die MoveEvaluation.
+     */
+    public void setReportsEnabled(boolean enabled) { this.reportsEnabled = enabled; }
+
+    /**
+     * Bericht der letzten Zwei-Spieler-Suche oder null (Berichte aus oder kein Suchzug).
+     */
+    public SearchReport getLastReport() { return lastReport; }
+
+    @Override
+    public MoveEvaluation chooseMove(Board board) {
+        return chooseMove(board, timeBudgetMillis);
+    }
+
+    @Override
+    public boolean usesThinkingTime() {
+        return true;
+    }
+
+    @Override
+    public String getSearchSummary() {
+        if (lastResult == null) return null;
+        if (lastMultiPlayer) return lastResult + " (" + multiSearch.getMode() + ")";
+        return lastResult + " mit " + search.getThreads() + " Threads; " + table;
+    }
+
+    /**
+     * Sucht höchstens {@code budgetMillis} Millisekunden und liefert den besten Zug der
+     * letzten vollständig durchsuchten Tiefe.
+     */
+    @Override
+    public MoveEvaluation chooseMove(Board board, long budgetMillis) {
+        int me = indexOn(board);
+        lastReport = null;
+        if (me < 0) {
+            lastResult = null;
+            return super.chooseMove(board);
+        }
+
+        stopPondering();
+        MoveEvaluation endgameMove = chooseEndgameMove(board);
+        if (endgameMove != null) {
+            lastResult = null;
+            return endgameMove;
+        }
+
+        long deadline = System.nanoTime() + budgetMillis * 1_000_000L;
+        MoveEvaluation provenMove = chooseProvenMove(board, budgetMillis);
+        if (provenMove != null) {
+            lastResult = null;
+            return provenMove;
+        }
+        Board root = board.clone();
+        root.setSideToMove(me);
+        lastMultiPlayer = board.getNumPlayers() > 2;
+        AlphaBetaSearch.Result result;
+        if (lastMultiPlayer) {
+            result = multiSearch.search(root, deadline, AlphaBetaSearch.MAX_PLY);
+        } else {
+            table.resetStatistics();
+            // nach dem Pondern genügt die bisher erreichte Tiefe; die Tabelle liefert sie fast sofort
+            int maxDepth = AlphaBetaSearch.MAX_PLY;
+            int ponderedDepth = Math.max(searchedDepth, ponderDepth - 1);
+            if (ponderDepth > 0 && ponderedDepth > 0) maxDepth = ponderedDepth;
+            List<SearchReport.Iteration> iterations = null;
+            if (reportsEnabled || !listeners.isEmpty()) {
+                List<SearchReport.Iteration> collected = new ArrayList<>();
+                search.setReporter(iteration -> {
+                    collected.add(iteration);
+                    for (SearchListener listener : listeners) listener.iterationFinished(iteration);
+                });
+                iterations = collected;
+            }
+            try {
+                result = search.search(root, deadline, maxDepth);
+            } finally {
+                search.setReporter(null); // Pondern läuft ohne Berichte
+            }
+            searchedDepth = result.depth;
+            ponderDepth = 0;
+            if (iterations != null) {
+                lastReport = new SearchReport(result, search.getThreads(), table.getHitRate(), iterations);
+                for (SearchListener listener : listeners) listener.searchFinished(lastReport);
+            }
+        }
+        lastResult = result;
+
+        if (result.move < 0) {
+            return new MoveEvaluation(null, "Keine legalen Züge möglich. KI ist blockiert.");
+        }
+
+        Move move = Move.of(result.move);
+        recordChosenMove(move, board);
+        return new MoveEvaluation(move, explainMove(move, board) + " [SUCHE] " + result, lastReport);
+    }
+
+    /**
+     * Startet die Hintergrundsuche in der Stellung des Gegners (kehrt sofort zurück).
+     * Nur bei zwei Spielern; eine laufende Ponder-Suche wird vorher beendet.
+     */
+    @Override
+    public synchronized void startPondering(Board board) {
+        stopPondering();
+        int me = indexOn(board);
+        if (me < 0 || board.getNumPlayers() != 2) return;
+
+        Board root = board.clone();
+        root.setSideToMove(1 - me);
+        AtomicBoolean stop = new AtomicBoolean();
+        // Deadline weit in der Zukunft: das Pondern endet erst mit stopPondering()
+        long deadline = System.nanoTime() + 3_600_000_000_000L;
+        Thread thread = new Thread(() -> ponderResult = search.search(root, deadline, AlphaBetaSearch.MAX_PLY, stop),
+                "santorini-ponder");
+        thread.setDaemon(true);
+        ponderResult = null;
+        ponderStop = stop;
+        ponderThread = thread;
+        thread.start();
+    }
+
+    /**
+     * Beendet das Pondern. Die Suche prüft das Stop-Signal alle paar tausend Knoten, das Warten
+     * dauert daher nur Bruchteile einer Millisekunde.
+     */
+    @Override
+    public synchronized void stopPondering() {
+        Thread thread = ponderThread;
+        if (thread == null) return;
+        ponderStop.set(true);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ponderThread = null;
+        ponderStop = null;
+        AlphaBetaSearch.Result result = ponderResult;
+        ponderDepth = result == null ? 0 : result.depth;
+    }
+
+    /**
+     * true, solange eine Ponder-Suche im Hintergrund läuft.
+     */
+    public boolean isPondering() {
+        return ponderThread != null;
+    }
+}
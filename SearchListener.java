@@ -0,0 +1,17 @@
+/**
+ * Empfänger für Suchberichte eines {@link SearchAgent}. Die Methoden werden im Suchthread
+ * aufgerufen und sollten daher schnell zurückkehren.
+ */
+public interface SearchListener {
+
+    /**
+     * Eine Iteration der iterativen Vertiefung ist abgeschlossen.
+     */
+    default void iterationFinished(SearchReport.Iteration iteration) {
+    }
+
+    /**
+     * Die Suche für einen Zug ist beendet; derselbe Bericht hängt an der MoveEvaluation.
+     */
+    void searchFinished(SearchReport report);
+}
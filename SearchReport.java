@@ -0,0 +1,104 @@
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Strukturierter Bericht über die Suche für einen Zug: erreichte Tiefe, Knoten, Knoten/s,
+ * Trefferquote der Transpositionstabelle, effektiver Verzweigungsfaktor, Hauptvariante und die
+ * einzelnen Iterationen der iterativen Vertiefung.
+ *
+ * Berichte werden nur erzeugt, wenn sie beim {@link SearchAgent} eingeschaltet sind (oder ein
+ * {@link SearchListener} registriert ist); sonst sammelt die Suche nichts davon.
+ */
+public final class SearchReport {
+
+    /**
+     * Eine abgeschlossene Iteration (Werte des Hauptthreads, Zeit und Knoten kumuliert).
+     */
+    public static final class Iteration {
+        public final int depth;
+        public final int score;
+        public final long nodes;
+        public final long nanos;
+        public final int[] pv; // gepackte Züge
+
+        Iteration(int depth, int score, long nodes, long nanos, int[] pv) {
+            this.depth = depth;
+            this.score = score;
+            this.nodes = nodes;
+            this.nanos = nanos;
+            this.pv = pv;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Tiefe %d: %s, %,d Knoten, %.3fs, HV %s",
+                    depth, AlphaBetaSearch.scoreToString(score), nodes, nanos / 1_000_000_000.0, pvToString(pv));
+        }
+    }
+
+    public final int depth;
+    public final int score;
+    public final long nodes;     // alle Threads
+    public final long nanos;
+    public final int threads;
+    public final double ttHitRate;
+    public final int[] pv;
+    public final List<Iteration> iterations;
+
+    SearchReport(AlphaBetaSearch.Result result, int threads, double ttHitRate, List<Iteration> iterations) {
+        this.depth = result.depth;
+        this.score = result.score;
+        this.nodes = result.nodes;
+        this.nanos = result.nanos;
+        this.threads = threads;
+        this.ttHitRate = ttHitRate;
+        this.iterations = Collections.unmodifiableList(iterations);
+        this.pv = iterations.isEmpty() ? new int[0] : iterations.get(iterations.size() - 1).pv;
+    }
+
+    public double nodesPerSecond() {
+        return nodes * 1_000_000_000.0 / Math.max(nanos, 1);
+    }
+
+    /**
+     * Effektiver Verzweigungsfaktor: Knoten der letzten Iteration geteilt durch die der vorletzten
+     * (bei nur einer Iteration die depth-te Wurzel der Knotenzahl).
+     */
+    public double branchingFactor() {
+        int n = iterations.size();
+        if (n == 0) return 0.0;
+        long last = iterations.get(n - 1).nodes - (n > 1 ? iterations.get(n - 2).nodes : 0);
+        if (n == 1) return Math.pow(Math.max(last, 1), 1.0 / Math.max(depth, 1));
+        long previous = iterations.get(n - 2).nodes - (n > 2 ? iterations.get(n - 3).nodes : 0);
+        return (double) last / Math.max(previous, 1);
+    }
+
+    /**
+     * Zeit der einzelnen Iteration {@code index} (nicht kumuliert).
+     */
+    public long iterationNanos(int index) {
+        return iterations.get(index).nanos - (index > 0 ? iterations.get(index - 1).nanos : 0);
+    }
+
+    static String pvToString(int[] pv) {
+        StringBuilder sb = new StringBuilder();
+        for (int move : pv) {
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(Move.toNotation(move));
+        }
+        return sb.length() == 0 ? "-" : sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Suchtiefe %d, %,d Knoten in %.2fs (%,.0f Knoten/s, %d Threads), TT-Treffer %.1f%%, "
+                        + "Verzweigungsfaktor %.2f, Bewertung %s%nHauptvariante: %s",
+                depth, nodes, nanos / 1_000_000_000.0, nodesPerSecond(), threads, ttHitRate * 100,
+                branchingFactor(), AlphaBetaSearch.scoreToString(score), pvToString(pv)));
+        for (int i = 0; i < iterations.size(); i++) {
+            sb.append(String.format("%n  %s (Iteration %.3fs)", iterations.get(i), iterationNanos(i) / 1_000_000_000.0));
+        }
+        return sb.toString();
+    }
+}
@@ -4,12 +4,100 @@ import java.io.IOException;
 
 
 public class SmartAgent extends ReflexAgent {
+    // share of the move budget the proof-number pre-check may use
+    private static final double PROOF_BUDGET_SHARE = 0.1;
+
+    private ProofNumberSolver solver; // created on first use
+    private ProofNumberSolver.Result lastProof;
 
 
     public SmartAgent(String playerId) {
         super(playerId);
     }
 
+    /**
+     * Creates the agent type selected with -Dsantorini.agent (reflex, search or mcts),
+     * or {@code defaultType} if the property is not set.
+     */
+    public static SmartAgent create(String playerId, String defaultType) {
+        String type = System.getProperty("santorini.agent", defaultType);
+        switch (type.toLowerCase()) {
+            case "reflex":
+                return new SmartAgent(playerId);
+            case "search":
+                return new SearchAgent(playerId);
+            case "mcts":
+                return new MCTSAgent(playerId);
+            default:
+                throw new IllegalArgumentException("Unbekannter Agententyp: " + type);
+        }
+    }
+
+    /**
+     * Chooses a move within the given thinking time. Agents without a search ignore the budget.
+     */
+    public MoveEvaluation chooseMove(Board board, long budgetMillis) {
+        return chooseMove(board);
+    }
+
+    /**
+     * True if the agent spends its thinking time on a search (no simulated delay needed).
+     */
+    public boolean usesThinkingTime() {
+        return false;
+    }
+
+    /**
+     * Short report of the last search (depth or iterations, nodes/s), or null.
+     */
+    public String getSearchSummary() {
+        return null;
+    }
+
+    /**
+     * Root pre-check for any agent: tries to prove a forced win with a proof-number search within
+     * a share of the move budget (node limit -Dsantorini.pnsNodes, 0 disables the check; table
+     * size -Dsantorini.pnsMb). Returns the winning move, or null if no win was proven.
+     */
+    protected MoveEvaluation chooseProvenMove(Board board, long budgetMillis) {
+        long maxNodes = Long.getLong("santorini.pnsNodes", ProofNumberSolver.DEFAULT_MAX_NODES);
+        int me = indexOn(board);
+        if (maxNodes <= 0 || me < 0 || board.getNumPlayers() != 2) return null;
+        if (solver == null) {
+            solver = new ProofNumberSolver(Integer.getInteger("santorini.pnsMb", ProofNumberSolver.DEFAULT_SIZE_MB));
+        }
+
+        Board root = board.clone();
+        root.setSideToMove(me);
+        long deadline = System.nanoTime() + (long) (budgetMillis * PROOF_BUDGET_SHARE * 1_000_000L);
+        lastProof = solver.solve(root, maxNodes, deadline);
+        if (lastProof.outcome != ProofNumberSolver.Outcome.WIN || lastProof.move < 0) return null;
+
+        Move move = Move.of(lastProof.move);
+        recordChosenMove(move, board);
+        return new MoveEvaluation(move, explainMove(move, board) + " [BEWEIS] " + lastProof);
+    }
+
+    /**
+     * Result of the last proof-number pre-check, or null.
+     */
+    public ProofNumberSolver.Result getLastProof() {
+        return lastProof;
+    }
+
+    /**
+     * Starts searching the opponent's position in the background while the opponent thinks.
+     * Must return immediately; agents without a search do nothing.
+     */
+    public void startPondering(Board board) {
+    }
+
+    /**
+     * Stops a running background search and waits briefly for it to finish.
+     */
+    public void stopPondering() {
+    }
+
 
     /**
      * Called by the trainer at the end of a game to pass the final reward.
@@ -26,5 +114,3 @@ public class SmartAgent extends ReflexAgent {
         }
     }
 }
-
-
@@ -0,0 +1,115 @@
+/**
+ * Die 8 Symmetrien (Drehungen und Spiegelungen) des 5x5-Spielfelds.
+ *
+ * Transformation t (0..7): zuerst col/row tauschen, falls Bit 2 gesetzt, dann col spiegeln
+ * (Bit 0) und row spiegeln (Bit 1). t = 0 ist die Identität. Board pflegt für jede Symmetrie
+ * einen eigenen Zobrist-Hash, so dass die kanonische Form (kleinster Hash) in O(1) feststeht.
+ */
+public final class Symmetry {
+    public static final int COUNT = 8;
+    public static final int IDENTITY = 0;
+
+    // SQUARE_MAP[t * NUM_SQUARES + square] = Bild des Feldes unter t
+    private static final int[] SQUARE_MAP = new int[COUNT * Board.NUM_SQUARES];
+    private static final int[] INVERSE = new int[COUNT];
+
+    static {
+        int last = Board.BOARD_SIZE - 1;
+        for (int t = 0; t < COUNT; t++) {
+            for (int sq = 0; sq < Board.NUM_SQUARES; sq++) {
+                int c = Board.colOf(sq);
+                int r = Board.rowOf(sq);
+                if ((t & 4) != 0) { int tmp = c; c = r; r = tmp; }
+                if ((t & 1) != 0) c = last - c;
+                if ((t & 2) != 0) r = last - r;
+                SQUARE_MAP[t * Board.NUM_SQUARES + sq] = Board.square(c, r);
+            }
+        }
+        for (int t = 0; t < COUNT; t++) {
+            for (int u = 0; u < COUNT; u++) {
+                boolean identity = true;
+                for (int sq = 0; sq < Board.NUM_SQUARES && identity; sq++) {
+                    identity = map(u, map(t, sq)) == sq;
+                }
+                if (identity) INVERSE[t] = u;
+            }
+        }
+    }
+
+    private Symmetry() {
+    }
+
+    public static int map(int t, int square) {
+        return SQUARE_MAP[t * Board.NUM_SQUARES + square];
+    }
+
+    public static int inverse(int t) {
+        return INVERSE[t];
+    }
+
+    public static int transformMask(int t, int mask) {
+        int result = 0;
+        while (mask != 0) {
+            result |= 1 << map(t, Integer.numberOfTrailingZeros(mask));
+            mask &= mask - 1;
+        }
+        return result;
+    }
+
+    /**
+     * Wendet t auf einen gepackten Zug an (das Gewinn-Flag bleibt erhalten).
+     */
+    public static int transformMove(int t, int packed) {
+        int from = map(t, Move.fromSquare(packed));
+        int to = map(t, Move.toSquare(packed));
+        int build = Move.isWin(packed) ? Move.NO_SQUARE : map(t, Move.buildSquare(packed));
+        return Move.pack(from, to, build);
+    }
+
+    public static Move transformMove(int t, Move move) {
+        return Move.of(transformMove(t, move.toPacked()));
+    }
+
+    /**
+     * Symmetrie, die das Board in seine kanonische Form überführt (kleinster Hash aller 8 Bilder).
+     */
+    public static int canonicalSymmetry(Board board) {
+        int best = IDENTITY;
+        long bestHash = board.getSymmetricHash(IDENTITY);
+        for (int t = 1; t < COUNT; t++) {
+            long h = board.getSymmetricHash(t);
+            if (h < bestHash) {
+                bestHash = h;
+                best = t;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Erzeugt eine transformierte Kopie des Boards (Level, Arbeiter, Zugspieler).
+     */
+    public static Board transform(Board board, int t) {
+        Board copy = new Board(board.getPlayerIds());
+        for (int sq = 0; sq < Board.NUM_SQUARES; sq++) {
+            int target = map(t, sq);
+            copy.setLevel(Board.colOf(target), Board.rowOf(target), board.levelAt(sq));
+        }
+        for (int p = 0; p < board.getNumPlayers(); p++) {
+            for (Worker w : board.getWorkersByPlayer(p)) {
+                int target = map(t, Board.square(w.getCoord()[0], w.getCoord()[1]));
+                copy.placeWorker(p, w.getWorkerId(), Board.colOf(target), Board.rowOf(target));
+            }
+        }
+        copy.setSideToMove(board.getSideToMove());
+        return copy;
+    }
+
+    /**
+     * Kanonische Form des Boards; mit {@link #inverse} der gelieferten Symmetrie lassen sich
+     * Züge aus der kanonischen Form zurück auf das Original abbilden.
+     */
+    public static Board canonicalize(Board board) {
+        return transform(board, canonicalSymmetry(board));
+    }
+}
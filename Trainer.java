@@ -1,6 +1,9 @@
 import java.util.*;
 
 public class Trainer {
+    // Platzierungen aus der Eröffnungstabelle: bis zu diesem Abstand zur besten Bewertung (für Abwechslung)
+    private static final int PLACEMENT_MARGIN = 25;
+
     private final int maxMovesPerGame;
     private final Random random = new Random();
     private List<String> playerIds;
@@ -34,17 +37,19 @@ public class Trainer {
         playerIds = Arrays.asList("P1", "P2");
         board = new Board(playerIds);
 
-        a1 = new SmartAgent("P1");
-        a2 = new SmartAgent("P2");
+        a1 = SmartAgent.create("P1", "reflex");
+        a2 = SmartAgent.create("P2", "reflex");
         agents = Arrays.asList(a1, a2);
 
         // Zufällige Platzierung der Arbeiter
-        randomPlacement(board, "P1");
-        randomPlacement(board, "P2");
+        placeWorkers(board, "P1");
+        placeWorkers(board, "P2");
 
-        // Startspieler zufällig wählen
-        currentIdx = random.nextInt(2);
+        // Startspieler zufällig wählen; die Eröffnungstabelle gilt nur, wenn der zuerst
+        // Platzierende (P1) auch zuerst zieht
+        currentIdx = OpeningBook.getDefault() != null ? 0 : random.nextInt(2);
         currentPlayer = playerIds.get(currentIdx);
+        board.setSideToMove(currentIdx);
 
         boolean gameOver = false;
         String winner = null;
@@ -62,8 +67,7 @@ public class Trainer {
                 winner = playerIds.get((currentIdx + 1) % 2);
                 break;
             } else {
-                board.moveWorker(currentPlayer, move.getMoveFrom(), move.getMoveTo());
-                if (move.getBuildAt() != null) board.buildStructure(move.getBuildAt());
+                board.makeMove(move);
 
                 if (board.checkWin(move.getMoveTo())) {
                     gameOver = true;
@@ -100,7 +104,21 @@ public class Trainer {
         return winner == null ? "Unentschieden" : winner;
     }
 
-    /** Zufällige Platzierung von Arbeitern auf dem Board */
+    /**
+     * Platziert beide Arbeiter nach der Eröffnungstabelle, ohne Tabelle zufällig.
+     */
+    private void placeWorkers(Board board, String pid) {
+        OpeningBook book = OpeningBook.getDefault();
+        int[] squares = book == null ? null : book.suggest(board, board.getPlayerIndex(pid), random, PLACEMENT_MARGIN);
+        if (squares == null) {
+            randomPlacement(board, pid);
+            return;
+        }
+        for (int i = 0; i < squares.length; i++) {
+            board.placeWorker(pid, i + 1, Board.colOf(squares[i]), Board.rowOf(squares[i]));
+        }
+    }
+
     private void randomPlacement(Board board, String pid) {
         int placed = 0;
         int tries = 0;
@@ -0,0 +1,159 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Transpositionstabelle fester Größe auf primitiven long-Arrays (keine Objekte pro Eintrag).
+ *
+ * Je zwei Einträge bilden einen Bucket: Slot 0 wird nur von einer mindestens gleich tiefen
+ * Suche (oder einem Eintrag aus einer älteren Suche) ersetzt, Slot 1 wird immer überschrieben.
+ * Pro Eintrag werden der vollständige Zobrist-Hash (Verifikation) und ein gepacktes Datenwort
+ * gespeichert:
+ *   Bits  0-31 Bewertung (int), 32-42 Move-Id + 1 (0 = kein Zug), 43-50 Tiefe,
+ *   Bits 51-52 Schrankentyp, 53-60 Generation.
+ * Ein Datenwort 0 bedeutet "kein Eintrag".
+ *
+ * Die Tabelle darf ohne Sperren von mehreren Suchthreads gleichzeitig benutzt werden: im
+ * Schlüssel-Array steht hash ^ data, so dass ein von zwei Threads halb überschriebener Eintrag
+ * bei der Prüfung nicht mehr zum Hash passt und als Fehlzugriff gilt.
+ */
+public final class TranspositionTable {
+    public static final int BOUND_LOWER = 1; // Bewertung >= score (Beta-Schnitt)
+    public static final int BOUND_UPPER = 2; // Bewertung <= score (kein Zug über Alpha)
+    public static final int BOUND_EXACT = 3;
+
+    public static final int DEFAULT_SIZE_MB = 16;
+    private static final int BYTES_PER_ENTRY = 16;
+    private static final int FILL_SAMPLE = 1000;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int bucketMask;
+    private int generation = 1;
+
+    // Zähler (seit dem letzten resetStatistics)
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder collisions = new LongAdder(); // Eintrag einer anderen Stellung wurde verdrängt
+
+    public TranspositionTable(int sizeMb) {
+        if (sizeMb <= 0) throw new IllegalArgumentException("Größe muss positiv sein: " + sizeMb);
+        long entries = Long.highestOneBit((long) sizeMb * 1024 * 1024 / BYTES_PER_ENTRY);
+        entries = Math.max(2, Math.min(entries, 1 << 30));
+        this.keys = new long[(int) entries];
+        this.data = new long[(int) entries];
+        this.bucketMask = (int) (entries / 2) - 1;
+    }
+
+    public TranspositionTable() {
+        this(DEFAULT_SIZE_MB);
+    }
+
+    /**
+     * Sucht den Eintrag zur Stellung; liefert das Datenwort oder 0.
+     */
+    public long probe(long hash) {
+        probes.increment();
+        int i = bucketIndex(hash);
+        long d = data[i];
+        if (d != 0 && (keys[i] ^ d) == hash) {
+            hits.increment();
+            return d;
+        }
+        d = data[i + 1];
+        if (d != 0 && (keys[i + 1] ^ d) == hash) {
+            hits.increment();
+            return d;
+        }
+        return 0;
+    }
+
+    /**
+     * Speichert ein Suchergebnis; {@code moveId} ist {@link Move#getId()} oder -1.
+     */
+    public void store(long hash, int depth, int bound, int score, int moveId) {
+        int i = bucketIndex(hash);
+        long oldData = data[i];
+        boolean sameKey = (keys[i] ^ oldData) == hash;
+        boolean replaceFirst = sameKey || oldData == 0
+                || depth >= depth(oldData) || generation(oldData) != generation;
+        if (!replaceFirst) {
+            i++;
+            oldData = data[i];
+            sameKey = (keys[i] ^ oldData) == hash;
+        }
+        if (oldData != 0 && !sameKey) collisions.increment();
+
+        // Zug der bisherigen Stellung behalten, wenn die neue Suche keinen liefert
+        if (moveId < 0 && sameKey) moveId = moveId(oldData);
+
+        long newData = (score & 0xFFFFFFFFL)
+                | ((long) (moveId + 1) << 32)
+                | ((long) Math.min(depth, 255) << 43)
+                | ((long) bound << 51)
+                | ((long) generation << 53);
+        keys[i] = hash ^ newData;
+        data[i] = newData;
+    }
+
+    private int bucketIndex(long hash) {
+        return ((int) hash & bucketMask) << 1;
+    }
+
+    //  Datenwort auslesen
+
+    public static int score(long entry) { return (int) entry; }
+    public static int moveId(long entry) { return (int) ((entry >>> 32) & 0x7FF) - 1; }
+    public static int depth(long entry) { return (int) ((entry >>> 43) & 0xFF); }
+    public static int bound(long entry) { return (int) ((entry >>> 51) & 3); }
+    private static int generation(long entry) { return (int) ((entry >>> 53) & 0xFF); }
+
+    //  Verwaltung
+
+    /**
+     * Neue Suche: ältere Einträge dürfen danach bevorzugt ersetzt werden.
+     */
+    public void newSearch() {
+        generation = generation == 255 ? 1 : generation + 1;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(data, 0);
+        generation = 1;
+        resetStatistics();
+    }
+
+    public void resetStatistics() {
+        probes.reset();
+        hits.reset();
+        collisions.reset();
+    }
+
+    public int getCapacity() { return keys.length; }
+    public long getProbes() { return probes.sum(); }
+    public long getHits() { return hits.sum(); }
+    public long getCollisions() { return collisions.sum(); }
+
+    public double getHitRate() {
+        long n = probes.sum();
+        return n == 0 ? 0.0 : (double) hits.sum() / n;
+    }
+
+    /**
+     * Füllgrad der aktuellen Generation, geschätzt über die ersten Einträge der Tabelle.
+     */
+    public double getFillRate() {
+        int n = Math.min(FILL_SAMPLE, data.length);
+        int used = 0;
+        for (int i = 0; i < n; i++) {
+            if (data[i] != 0 && generation(data[i]) == generation) used++;
+        }
+        return (double) used / n;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TT %d Einträge: %,d Abfragen, Trefferquote %.1f%%, %,d Kollisionen, Füllgrad %.1f%%",
+                keys.length, getProbes(), getHitRate() * 100, getCollisions(), getFillRate() * 100);
+    }
+}
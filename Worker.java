@@ -4,17 +4,20 @@
  */
 public class Worker {
     private final String playerId; // Z.B. "P1", "P2"
+    private final int playerIndex; // Index des Spielers im Board
     private final int workerId;    // 1 oder 2
     private int[] coord;           // [col, row]
 
-    public Worker(String playerId, int workerId, int col, int row) {
+    public Worker(String playerId, int playerIndex, int workerId, int col, int row) {
         this.playerId = playerId;
+        this.playerIndex = playerIndex;
         this.workerId = workerId;
         this.coord = new int[]{col, row};
     }
 
     // Getter
     public String getPlayerId() { return playerId; }
+    public int getPlayerIndex() { return playerIndex; }
     public int getWorkerId() { return workerId; }
     public int[] getCoord() { return coord; }
 